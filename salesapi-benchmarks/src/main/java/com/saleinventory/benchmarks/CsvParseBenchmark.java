@@ -0,0 +1,52 @@
+package com.saleinventory.benchmarks;
+
+import com.saleinventory.service.ProductCsvParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsowanie CSV importu magazynu (ProductCsvParser, którego używa ProductImportService)
+ * bez zapisu do bazy. Plik jest generowany raz na trial z fixtures/products-seed.csv.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private AnnotationConfigApplicationContext context;
+    private ProductCsvParser parser;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Fixtures.expandCsv("products-seed.csv", rows);
+        // kontekst tylko z parserem: segment-bytes i pula wątków jak w aplikacji
+        context = new AnnotationConfigApplicationContext(ProductCsvParser.class);
+        parser = context.getBean(ProductCsvParser.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws Exception {
+        parser.parse(file, chunk -> {
+            blackhole.consume(chunk.products());
+            blackhole.consume(chunk.errors());
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.saleinventory.benchmarks;
+
+import com.saleinventory.SaleInventoryApplication;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dane wejściowe z src/main/resources/fixtures. Duże pliki są rozwijane z małych
+ * wzorców deterministycznie, więc każdy przebieg mierzy dokładnie te same bajty.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Brak fixture: " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<String> lines(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8).lines().toList();
+    }
+
+    // CSV z nagłówkiem wzorca i `rows` wierszami danych; SKU dostaje numer kopii, żeby wiersze się nie powtarzały
+    static Path expandCsv(String seedName, int rows) throws IOException {
+        List<String> seed = lines(seedName);
+        List<String> data = new ArrayList<>(seed.subList(1, seed.size()));
+        Path file = Files.createTempFile("bench-products-", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(seed.get(0));
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                String row = data.get(i % data.size());
+                writer.write(row.replaceFirst(";", "-" + (i / data.size()) + ";"));
+                writer.newLine();
+            }
+        }
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    // encje z tych samych wierszy co products-seed.csv, bez id - do zapisu przez repozytorium
+    static List<Product> products(int count) {
+        List<String> seed = lines("products-seed.csv");
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] fields = seed.get(1 + i % (seed.size() - 1)).split(";", -1);
+            Product product = new Product();
+            product.setSku(fields[0] + "-" + i / (seed.size() - 1));
+            product.setSize(fields[1]);
+            product.setPurchasePrice(new BigDecimal(fields[2].replace(',', '.')));
+            product.setStatus(ProductStatus.parse(fields[3]));
+            product.setPurchaseDate(LocalDate.parse(fields[4]));
+            product.setSaleDate(fields.length > 5 && !fields[5].isEmpty() ? LocalDate.parse(fields[5]) : null);
+            product.setQuantity(1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    // pełny kontekst aplikacji bez serwera WWW, z H2 w pamięci i wyłączonymi synchronizacjami StockX
+    static ConfigurableApplicationContext application() {
+        return new SpringApplicationBuilder(SaleInventoryApplication.class)
+                .web(WebApplicationType.NONE)
+                // wartości zmiennych środowiskowych z application.yml; API StockX nie jest wołane
+                .properties(
+                        "STOCKX_CLIENT_ID=bench",
+                        "STOCKX_CLIENT_SECRET=bench",
+                        "STOCKX_REDIRECT_URI=http://localhost/callback",
+                        "STOCKX_API_URL=http://localhost:1",
+                        "STOCKX_API_KEY=bench")
+                .run("--spring.config.import=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--stockx.orders.sync-initial-delay-ms=86400000",
+                        "--stockx.products.sync-initial-delay-ms=86400000");
+    }
+}
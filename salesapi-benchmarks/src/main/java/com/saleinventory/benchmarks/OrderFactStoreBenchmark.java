@@ -0,0 +1,63 @@
+package com.saleinventory.benchmarks;
+
+import com.saleinventory.dto.OrderFactsGroupDTO;
+import com.saleinventory.service.OrderFactStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregacje z kolumnowego magazynu faktów zamówień (OrderFactStore) po trzech latach historii:
+ * miesiące całego zakresu, tygodnie jednego kwartału i ranking produktów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFactStoreBenchmark {
+
+    private static final Instant START = LocalDate.of(2023, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    private static final int DAYS = 3 * 365;
+
+    @Param({"10000", "100000", "1000000"})
+    private int orders;
+
+    private OrderFactStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new OrderFactStore(ZoneOffset.UTC, 65536, Integer.MAX_VALUE);
+        Random random = new Random(42);
+        for (int i = 0; i < orders; i++) {
+            // zamówienia przychodzą chronologicznie, jak z synchronizacji
+            Instant createdAt = START.plus(Duration.ofMinutes((long) i * DAYS * 24 * 60 / orders));
+            int product = random.nextInt(500);
+            store.upsert("order-" + i, createdAt, BigDecimal.valueOf(5000 + random.nextInt(40000), 2),
+                    "p" + product, "Product " + product, "p" + product + "-" + (i % 12), "US " + (4 + i % 12));
+        }
+    }
+
+    @Benchmark
+    public List<OrderFactsGroupDTO> monthsAllYears() {
+        return store.aggregate(null, null, OrderFactStore.GroupBy.MONTH);
+    }
+
+    @Benchmark
+    public List<OrderFactsGroupDTO> weeksOfQuarter() {
+        return store.aggregate(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30), OrderFactStore.GroupBy.WEEK);
+    }
+
+    @Benchmark
+    public List<OrderFactsGroupDTO> productsAllYears() {
+        return store.aggregate(null, null, OrderFactStore.GroupBy.PRODUCT);
+    }
+}
@@ -0,0 +1,125 @@
+package com.saleinventory.benchmarks;
+
+import com.saleinventory.dto.ProductFilterDTO;
+import com.saleinventory.dto.ProductSliceDTO;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.ProductRepository;
+import com.saleinventory.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zapis i odczyt tabeli product przez repozytorium na H2 w pamięci, z tą samą konfiguracją
+ * JPA (batch_size, sekwencja z pulą) co aplikacja. Zapis idzie paczkami jak w synchronizacji
+ * produktów, odczyt to pełne przejście stronicowania po kluczu z ProductService.search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int PAGE_SIZE = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Insert {
+
+        @Param({"10000"})
+        int rows;
+
+        ConfigurableApplicationContext context;
+        ProductRepository repository;
+        TransactionTemplate transactionTemplate;
+        EntityManager entityManager;
+        List<Product> products;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = Fixtures.application();
+            repository = context.getBean(ProductRepository.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+            entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        }
+
+        // świeże encje bez id i pusta tabela przed każdym wywołaniem
+        @Setup(Level.Invocation)
+        public void prepare() {
+            repository.deleteAllInBatch();
+            products = Fixtures.products(rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Read {
+
+        @Param({"100000"})
+        int rows;
+
+        ConfigurableApplicationContext context;
+        ProductService productService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = Fixtures.application();
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+            saveInChunks(Fixtures.products(rows), repository, transactionTemplate, entityManager);
+            productService = context.getBean(ProductService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void bulkInsert(Insert state) {
+        saveInChunks(state.products, state.repository, state.transactionTemplate, state.entityManager);
+    }
+
+    @Benchmark
+    public void keysetScan(Read state, Blackhole blackhole) {
+        String cursor = null;
+        do {
+            ProductSliceDTO slice = state.productService.search(null, "purchaseDate", "asc", cursor, PAGE_SIZE);
+            blackhole.consume(slice.items());
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+    }
+
+    @Benchmark
+    public ProductSliceDTO filteredPage(Read state) {
+        ProductFilterDTO filter = new ProductFilterDTO("SKU1", null, ProductStatus.IN_STOCK, null, null, null, null);
+        return state.productService.search(filter, "purchaseDate", "desc", null, 100);
+    }
+
+    private static void saveInChunks(List<Product> products, ProductRepository repository,
+                                     TransactionTemplate transactionTemplate, EntityManager entityManager) {
+        for (int from = 0; from < products.size(); from += CHUNK_SIZE) {
+            List<Product> chunk = products.subList(from, Math.min(from + CHUNK_SIZE, products.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.saleinventory.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXOrderDTO;
+import com.saleinventory.dto.StockXOrdersResponse;
+import com.saleinventory.model.StockXOrder;
+import com.saleinventory.service.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumy dzienne i miesięczne wypłat (SalesRollupService.aggregate) - pętla, która zastąpiła
+ * liczenie miesięcy w StockXAnalyticsService. Zamówienia są kopiami nagranej strony
+ * przesuniętymi o kolejne dni, więc trafiają do wielu dni i miesięcy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RollupAggregationBenchmark {
+
+    @Param({"10000", "100000"})
+    private int orders;
+
+    private List<StockXOrder> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<StockXOrderDTO> page = objectMapper
+                .readValue(Fixtures.bytes("stockx-orders-page.json"), StockXOrdersResponse.class).items();
+
+        batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            StockXOrderDTO source = page.get(i % page.size());
+            StockXOrder order = new StockXOrder();
+            order.setOrderNumber(source.orderNumber() + "-" + i);
+            order.setCreatedAt(source.createdAt().plus(Duration.ofDays(i / page.size())));
+            order.setStatus(source.status());
+            order.setAmount(source.amount());
+            order.setTotalPayout(source.payout() != null ? source.payout().totalPayout() : null);
+            batch.add(order);
+        }
+    }
+
+    @Benchmark
+    public SalesRollupService.Rollups aggregate() {
+        return SalesRollupService.aggregate(batch);
+    }
+}
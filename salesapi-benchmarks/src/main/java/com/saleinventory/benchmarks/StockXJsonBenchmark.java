@@ -0,0 +1,63 @@
+package com.saleinventory.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXListingsResponse;
+import com.saleinventory.dto.StockXOrdersResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializacja nagranych stron StockX (100 zamówień, 100 ofert) do rekordów DTO
+ * w porównaniu z Map i JsonNode. ObjectMapper z tymi samymi modułami co w aplikacji.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockXJsonBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private ObjectMapper objectMapper;
+    private byte[] ordersPage;
+    private byte[] listingsPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ordersPage = Fixtures.bytes("stockx-orders-page.json");
+        listingsPage = Fixtures.bytes("stockx-listings-page.json");
+    }
+
+    @Benchmark
+    public StockXOrdersResponse ordersTyped() throws Exception {
+        return objectMapper.readValue(ordersPage, StockXOrdersResponse.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> ordersMap() throws Exception {
+        return objectMapper.readValue(ordersPage, MAP_TYPE);
+    }
+
+    @Benchmark
+    public JsonNode ordersTree() throws Exception {
+        return objectMapper.readTree(ordersPage);
+    }
+
+    @Benchmark
+    public StockXListingsResponse listingsTyped() throws Exception {
+        return objectMapper.readValue(listingsPage, StockXListingsResponse.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> listingsMap() throws Exception {
+        return objectMapper.readValue(listingsPage, MAP_TYPE);
+    }
+}
@@ -0,0 +1,34 @@
+// Obok plików tekstowych zapisuje warianty .br i .gz, które backend serwuje według Accept-Encoding.
+// Użycie: node precompress.mjs <katalog>; wywoływane też z vite build (vite.config.mjs).
+import { brotliCompressSync, gzipSync, constants } from 'node:zlib'
+import { readdirSync, readFileSync, writeFileSync, statSync } from 'node:fs'
+import path from 'node:path'
+import { fileURLToPath } from 'node:url'
+
+const EXTENSIONS = new Set(['.js', '.css', '.html', '.svg', '.json', '.txt', '.map'])
+// mniejsze pliki mieszczą się w jednym pakiecie, kompresja nic nie daje
+const MIN_SIZE = 1024
+
+export function precompress(dir) {
+  for (const name of readdirSync(dir)) {
+    const file = path.join(dir, name)
+    if (statSync(file).isDirectory()) {
+      precompress(file)
+      continue
+    }
+    if (!EXTENSIONS.has(path.extname(name))) continue
+    const content = readFileSync(file)
+    if (content.length < MIN_SIZE) continue
+    writeFileSync(file + '.br', brotliCompressSync(content, {
+      params: {
+        [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+        [constants.BROTLI_PARAM_SIZE_HINT]: content.length
+      }
+    }))
+    writeFileSync(file + '.gz', gzipSync(content, { level: 9 }))
+  }
+}
+
+if (process.argv[1] === fileURLToPath(import.meta.url)) {
+  precompress(path.resolve(process.argv[2] ?? 'dist'))
+}
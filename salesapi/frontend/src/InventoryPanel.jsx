@@ -9,6 +9,8 @@ import { Dialog, DialogContent, DialogDescription, DialogFooter, DialogHeader, D
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "./components/ui/table";
 import CsvUpload from "./CsvUpload";
 
+const PAGE_SIZE = 100;
+
 export default function InventoryPanel() {
   const [products, setProducts] = useState([]);
   const [loading, setLoading] = useState(false);
@@ -16,12 +18,16 @@ export default function InventoryPanel() {
   const [newProduct, setNewProduct] = useState({ sku: "", size: "", status: "IN_STOCK", quantity: 0 });
   const [editProduct, setEditProduct] = useState(null);
   const [editQuantity, setEditQuantity] = useState(0);
+  const [nextCursor, setNextCursor] = useState(null);
 
-  const fetchProducts = async () => {
+  const fetchProducts = async (cursor = null) => {
     try {
       setLoading(true);
-      const res = await axios.get("/api/products");
-      setProducts(res.data ?? []);
+      // limit włącza stronicowanie; bez niego API zwraca całą listę
+      const res = await axios.get("/api/products", { params: cursor ? { cursor, limit: PAGE_SIZE } : { limit: PAGE_SIZE } });
+      const page = res.data ?? [];
+      setProducts((prev) => (cursor ? [...prev, ...page] : page));
+      setNextCursor(res.headers["x-next-cursor"] ?? null);
     } catch (err) {
       setError("Nie udało się pobrać produktów.");
     } finally {
@@ -183,6 +189,13 @@ export default function InventoryPanel() {
             </TableBody>
           </Table>
         </CardContent>
+        {nextCursor && (
+          <CardFooter className="flex justify-center">
+            <Button variant="outline" disabled={loading} onClick={() => fetchProducts(nextCursor)} className="border-zinc-700 bg-zinc-900 text-zinc-100 hover:bg-zinc-800">
+              Wczytaj więcej
+            </Button>
+          </CardFooter>
+        )}
       </Card>
 
       <Dialog open={!!editProduct} onOpenChange={(open) => !open && setEditProduct(null)}>
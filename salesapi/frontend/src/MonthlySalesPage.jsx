@@ -1,4 +1,5 @@
-import { useMemo, useState } from "react";
+import { useEffect, useMemo, useState } from "react";
+import axios from "axios";
 import { motion } from "framer-motion";
 import {
   ResponsiveContainer,
@@ -98,7 +99,27 @@ export default function MonthlySalesPage() {
   const channels = demoChannels;
   const categories = demoCategories;
   const topProducts = demoTopProducts;
-  const recentOrders = demoRecentOrders;
+  const [dashboardSales, setDashboardSales] = useState(null);
+
+  // najnowsze sprzedaże z /api/dashboard (ograniczona lista zamiast całego /api/sales)
+  useEffect(() => {
+    axios
+      .get("/api/dashboard")
+      .then((res) => setDashboardSales(res.data?.sales ?? null))
+      .catch(() => setDashboardSales(null));
+  }, []);
+
+  const recentOrders = useMemo(() => {
+    if (!dashboardSales || dashboardSales.length === 0) return demoRecentOrders;
+    return dashboardSales.slice(0, 5).map((sale) => ({
+      id: String(sale.id),
+      date: sale.saleDate,
+      customer: sale.productName ?? "",
+      total: (sale.price || 0) * (sale.quantity || 0),
+      channel: "—",
+      status: "Zrealizowane",
+    }));
+  }, [dashboardSales]);
 
   const totals = useMemo(() => {
     const revenue = salesTrend.reduce((s, x) => s + x.revenue, 0);
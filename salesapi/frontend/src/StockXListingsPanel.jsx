@@ -35,6 +35,13 @@ import {
 const STATUS_OPTIONS = ["ACTIVE", "INACTIVE", "DELETED", "CANCELED", "MATCHED", "COMPLETED"];
 const INVENTORY_TYPES = ["STANDARD", "FLEX"];
 
+// lokalna kopia synchronizuje tylko aktywne listingi (INACTIVE tam znaczy "zniknął z aktywnych"),
+// więc pozostałe statusy i brak filtra statusu idą do API StockX
+const readsLocalCopy = (listingStatuses) => {
+  const statuses = (listingStatuses || "").split(",").map((s) => s.trim()).filter(Boolean);
+  return statuses.length > 0 && statuses.every((s) => s === "ACTIVE");
+};
+
 export default function StockXListingsPanel() {
   const [listings, setListings] = useState([]);
   const [filters, setFilters] = useState({
@@ -59,7 +66,8 @@ export default function StockXListingsPanel() {
       setLoading(true);
       setError("");
       try {
-        const response = await axios.get("/api/stockx/listings", {
+        const url = readsLocalCopy(appliedFilters.listingStatuses) ? "/api/stockx/listings/local" : "/api/stockx/listings";
+        const response = await axios.get(url, {
           params: { ...appliedFilters, pageNumber },
         });
         setListings(response.data.listings || []);
@@ -2,11 +2,22 @@ import { defineConfig } from 'vite'
 import react from '@vitejs/plugin-react'
 import { fileURLToPath } from 'node:url'
 import path from 'node:path'
+import { precompress } from './precompress.mjs'
 
 const rootDir = path.dirname(fileURLToPath(import.meta.url))
 
 export default defineConfig({
-  plugins: [react()],
+  plugins: [
+    react(),
+    // warianty .br/.gz powstają raz przy buildzie, backend ich nie kompresuje
+    {
+      name: 'precompress',
+      apply: 'build',
+      closeBundle() {
+        precompress(path.resolve(rootDir, 'dist'))
+      }
+    }
+  ],
   resolve: {
     alias: {
       '@': path.resolve(rootDir, 'src'),
@@ -0,0 +1,40 @@
+package com.saleinventory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Serwowanie zbudowanego frontendu z classpath:/static. Pliki w /assets mają hash w nazwie
+ * (vite build), więc mogą leżeć w cache przeglądarki bez końca; index.html jest sprawdzany
+ * przy każdym wejściu (Last-Modified), żeby nowy build od razu wskazywał nowe assety.
+ * Warianty .br/.gz są generowane przy buildzie frontendu i wybierane według Accept-Encoding,
+ * a wynik wyszukania zasobu trzyma w pamięci łańcuch resolverów.
+ */
+@Configuration
+public class FrontendResourceConfig implements WebMvcConfigurer {
+
+    @Value("${frontend.assets-max-age:365d}")
+    private Duration assetsMaxAge;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(assetsMaxAge).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // index.html (także po forward z FrontendController) i pozostałe pliki z katalogu głównego
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
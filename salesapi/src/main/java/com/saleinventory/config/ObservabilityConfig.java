@@ -0,0 +1,83 @@
+package com.saleinventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Obserwacje (timery Micrometer + spany) dla trzech składowych czasu zapytania:
+ * wywołań API StockX (http.client.requests), repozytoriów (repository.invocations)
+ * i serializacji odpowiedzi (http.server.serialization). RequestPhaseObservationHandler
+ * przypisuje je do endpointu, który je wywołał.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    // serwisy StockX budują gotowe URI (bez szablonu), więc tag uri to sama ścieżka, bez parametrów
+    @Bean
+    public ClientRequestObservationConvention stockXClientObservationConvention() {
+        return new DefaultClientRequestObservationConvention() {
+            @Override
+            protected KeyValue uri(ClientRequestObservationContext context) {
+                if (context.getUriTemplate() == null && context.getCarrier() != null) {
+                    return KeyValue.of("uri", context.getCarrier().getURI().getPath());
+                }
+                return super.uri(context);
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter observedJacksonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   ObservationRegistry observationRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                Observation.createNotStarted("http.server.serialization", observationRegistry)
+                        .observeChecked(() -> super.writeInternal(object, type, outputMessage));
+            }
+        };
+    }
+
+    // każde wywołanie metody repozytorium (zapytania pochodne, findBy, saveAll...) jako obserwacja
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxy, information) -> {
+                        String repository = information.getRepositoryInterface().getSimpleName();
+                        proxy.addAdvice((MethodInterceptor) invocation ->
+                                Observation.createNotStarted("repository.invocations", observationRegistry.getObject())
+                                        .lowCardinalityKeyValue("repository", repository)
+                                        .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                                        .observeChecked(invocation::proceed));
+                    }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public RequestPhaseObservationHandler requestPhaseObservationHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RequestPhaseObservationHandler(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.saleinventory.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rozkład czasu zapytań HTTP na składowe: upstream (API StockX), db (repozytoria)
+ * i serialization (zapis JSON). Czas każdej obserwacji-składowej trafia do timera
+ * http.server.requests.phases z tagami uri (wzorzec endpointu) i phase, więc np. dla
+ * dashboardu widać, ile z http.server.requests to StockX, a ile baza.
+ */
+public class RequestPhaseObservationHandler implements ObservationHandler<Observation.Context> {
+
+    private static final Map<String, String> PHASES = Map.of(
+            "http.client.requests", "upstream",
+            "repository.invocations", "db",
+            "http.server.serialization", "serialization");
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RequestPhaseObservationHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // nazwa obserwacji jest ustawiana dopiero przy starcie (konwencja), więc filtrujemy w onStart
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        if (PHASES.containsKey(context.getName())) {
+            context.put(PhaseStart.class, new PhaseStart(System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        PhaseStart start = context.get(PhaseStart.class);
+        if (start == null) return;
+        ServerRequestObservationContext request = findRequest(context);
+        if (request == null) return;
+
+        String uri = request.getPathPattern() != null ? request.getPathPattern() : "UNKNOWN";
+        Timer.builder("http.server.requests.phases")
+                .description("Czas składowych zapytania HTTP")
+                .tag("uri", uri)
+                .tag("phase", PHASES.get(context.getName()))
+                .register(meterRegistry.getObject())
+                .record(System.nanoTime() - start.nanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // obserwacje poza zapytaniem HTTP (synchronizacje, import w tle) nie mają rodzica-zapytania
+    private static ServerRequestObservationContext findRequest(Observation.Context context) {
+        ObservationView parent = context.getParentObservation();
+        while (parent != null) {
+            if (parent.getContextView() instanceof ServerRequestObservationContext request) {
+                return request;
+            }
+            parent = parent.getContextView().getParentObservation();
+        }
+        return null;
+    }
+
+    private record PhaseStart(long nanos) {}
+}
@@ -0,0 +1,103 @@
+package com.saleinventory.config;
+
+import com.saleinventory.service.StockXAuthService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Wspólny klient HTTP dla wszystkich serwisów StockX: jeden HttpClient JDK (HTTP/2, pula
+ * połączeń keep-alive, więc bez handshake TLS przy każdym zapytaniu), gzip, timeouty.
+ * Nagłówki autoryzacji dokłada interceptor, serwisy już ich nie budują. RestTemplateBuilder
+ * podpina konwertery Jacksona z ObjectMapperem aplikacji (m.in. obsługa java.time).
+ */
+@Configuration
+public class StockXClientConfig {
+
+    @Value("${stockx.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${stockx.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${stockx.api.key}")
+    private String apiKey;
+
+    @Bean
+    public HttpClient stockXHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public JdkClientHttpRequestFactory stockXRequestFactory(HttpClient stockXHttpClient) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(stockXHttpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return factory;
+    }
+
+    // zapytania do API gateway: Bearer + x-api-key
+    @Bean
+    public RestTemplate stockXRestTemplate(RestTemplateBuilder builder,
+                                           JdkClientHttpRequestFactory stockXRequestFactory,
+                                           ObjectProvider<StockXAuthService> authService) {
+        ClientHttpRequestInterceptor auth = (request, body, execution) -> {
+            String token = authService.getObject().getAccessToken();
+            if (token != null) {
+                request.getHeaders().setBearerAuth(token);
+            }
+            request.getHeaders().set("x-api-key", apiKey);
+            if (request.getHeaders().getAccept().isEmpty()) {
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+            }
+            ClientHttpResponse response = execution.execute(request, body);
+            if (token == null || response.getStatusCode() != HttpStatus.UNAUTHORIZED) {
+                return response;
+            }
+
+            // token odrzucony przed czasem - jedno wspólne odświeżenie i jedna ponowna próba
+            String refreshed;
+            try {
+                refreshed = authService.getObject().refreshAfterUnauthorized(token);
+            } catch (RuntimeException e) {
+                return response;
+            }
+            if (refreshed == null) {
+                return response;
+            }
+            response.close();
+            request.getHeaders().setBearerAuth(refreshed);
+            return execution.execute(request, body);
+        };
+
+        return builder
+                .requestFactory(() -> stockXRequestFactory)
+                .interceptors(new GzipDecodingInterceptor(), auth)
+                .build();
+    }
+
+    // endpoint OAuth - ten sam klient, ale bez nagłówków autoryzacji
+    @Bean
+    public RestTemplate stockXAuthRestTemplate(RestTemplateBuilder builder,
+                                               JdkClientHttpRequestFactory stockXRequestFactory) {
+        return builder
+                .requestFactory(() -> stockXRequestFactory)
+                .interceptors(new GzipDecodingInterceptor())
+                .build();
+    }
+}
@@ -1,24 +1,43 @@
 package com.saleinventory.controller;
 
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.service.InventoryAnalyticsService;
+import com.saleinventory.service.ProfitService;
 import com.saleinventory.service.StockXAnalyticsService;
+import com.saleinventory.service.StockXOrderFactService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
 
     @Autowired
     private StockXAnalyticsService analyticsService;
+    @Autowired
+    private InventoryAnalyticsService inventoryAnalyticsService;
+    @Autowired
+    private StockXOrderFactService orderFactService;
+    @Autowired
+    private ProfitService profitService;
 
     @GetMapping("/monthly-sales")
-    public ResponseEntity<?> getMonthlySales(@RequestParam(required = false) String month) {
+    public ResponseEntity<?> getMonthlySales(@RequestParam(required = false) String month,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to) {
         try {
-            if (month != null && !month.isBlank()) {
+            if (from != null && !from.isBlank() && to != null && !to.isBlank()) {
+                return ResponseEntity.ok(analyticsService.getSalesForRange(from, to));
+            } else if (month != null && !month.isBlank()) {
                 return ResponseEntity.ok(analyticsService.getSalesForMonth(month));
             } else {
                 return ResponseEntity.ok(analyticsService.getSalesForMonth("2025-01"));
@@ -27,5 +46,81 @@ public class AnalyticsController {
             return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
         }
     }
-}
 
+    @GetMapping("/daily-sales")
+    public ResponseEntity<?> getDailySales(@RequestParam String from, @RequestParam String to) {
+        try {
+            return ResponseEntity.ok(analyticsService.getDailySales(LocalDate.parse(from), LocalDate.parse(to)));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // np. niesprzedany towar kupiony w I kwartale: ?status=IN_STOCK&purchasedFrom=2025-01-01&purchasedTo=2025-03-31
+    @GetMapping("/inventory/value")
+    public ResponseEntity<?> getInventoryValue(@RequestParam(required = false) ProductStatus status,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo) {
+        try {
+            return ResponseEntity.ok(inventoryAnalyticsService.getInventoryValue(status, purchasedFrom, purchasedTo));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/inventory/status")
+    public ResponseEntity<?> getInventoryByStatus() {
+        try {
+            return ResponseEntity.ok(inventoryAnalyticsService.getCountsByStatus());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/inventory/aging")
+    public ResponseEntity<?> getStockAging(@RequestParam(required = false) ProductStatus status,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        try {
+            return ResponseEntity.ok(inventoryAnalyticsService.getStockAging(status, asOf));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // dowolny zakres dni z pamięciowego magazynu faktów, np. ?groupBy=week&from=2024-01-01&to=2025-12-31
+    @GetMapping("/orders")
+    public ResponseEntity<?> getOrderTotals(@RequestParam(defaultValue = "month") String groupBy,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(orderFactService.aggregate(from, to, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // zysk ze sprzedaży StockX dopasowanej do towaru, np. ?from=2025-01&to=2025-06 (domyślnie ostatnie 12 miesięcy)
+    @GetMapping("/profit")
+    public ResponseEntity<?> getMonthlyProfit(@RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to) {
+        try {
+            return ResponseEntity.ok(profitService.getMonthlyProfit(from, to));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // dopasowanie nierozliczonych zamówień, np. po imporcie CSV z nowym towarem
+    @PostMapping("/profit/reconcile")
+    public ResponseEntity<?> reconcileProfit() {
+        try {
+            return ResponseEntity.ok(profitService.reconcile());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd rozliczenia: " + e.getMessage());
+        }
+    }
+}
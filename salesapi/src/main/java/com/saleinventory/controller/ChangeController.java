@@ -0,0 +1,25 @@
+package com.saleinventory.controller;
+
+import com.saleinventory.service.ChangeStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeController {
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    // zdarzenia "change" z {"entity": "product"|"sale", "version"}; dane przez /api/products/changes i /api/sales/changes
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() throws IOException {
+        return changeStreamService.subscribe();
+    }
+}
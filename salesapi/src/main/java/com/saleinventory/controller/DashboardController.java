@@ -0,0 +1,36 @@
+package com.saleinventory.controller;
+
+import com.saleinventory.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // month w formacie yyyy-MM, domyślnie bieżący miesiąc
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@RequestParam(required = false) String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = month != null && !month.isBlank() ? YearMonth.parse(month) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Niepoprawny miesiąc: " + month);
+        }
+        try {
+            return ResponseEntity.ok(dashboardService.getDashboard(yearMonth));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd podczas ładowania dashboardu: " + e.getMessage());
+        }
+    }
+}
@@ -1,28 +1,87 @@
 package com.saleinventory.controller;
 
+import com.saleinventory.dto.ImportJobDTO;
+import com.saleinventory.dto.ProductBatchItemDTO;
+import com.saleinventory.dto.ProductBatchResponseDTO;
+import com.saleinventory.dto.ProductFilterDTO;
+import com.saleinventory.dto.ProductSliceDTO;
 import com.saleinventory.model.Product;
+import com.saleinventory.service.ChangeTracker;
+import com.saleinventory.service.ProductBatchService;
 import com.saleinventory.service.ProductImportService;
 import com.saleinventory.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_LIMIT = 100;
+
     @Autowired
     private ProductService productService;
     @Autowired
     private ProductImportService productImportService;
+    @Autowired
+    private ProductBatchService productBatchService;
+    @Autowired
+    private ChangeTracker changeTracker;
 
+    // kursor do następnej strony wraca w nagłówku, żeby ciało odpowiedzi pozostało tablicą produktów.
+    // Bez cursor i limit - pierwsza strona (DEFAULT_LIMIT). Cała przefiltrowana lista tylko jawnie przez all=true,
+    // do products.list.max-rows wierszy.
+    // ETag zmienia się z każdą zatwierdzoną zmianą produktów; If-None-Match z aktualnym daje 304
     @GetMapping
-    public List<Product> getAll() {
-        return productService.getAll();
+    public ResponseEntity<?> getAll(ProductFilterDTO filter,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String sortBy,
+                                    @RequestParam(defaultValue = "asc") String sortDir,
+                                    @RequestParam(defaultValue = "false") boolean all,
+                                    WebRequest request) {
+        if (request.checkNotModified(changeTracker.etag(ChangeTracker.PRODUCT))) {
+            return null;
+        }
+        try {
+            if (all) {
+                return ResponseEntity.ok(productService.list(filter, sortBy, sortDir));
+            }
+            ProductSliceDTO slice = productService.search(filter, sortBy, sortDir, cursor,
+                    limit != null ? limit : DEFAULT_LIMIT);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (slice.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, slice.nextCursor());
+            }
+            return response.body(slice.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // zmiany po numerze since (changed + id usuniętych); version z odpowiedzi to kolejne since
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(defaultValue = "500") int limit,
+                                        WebRequest request) {
+        if (request.checkNotModified(changeTracker.etag(ChangeTracker.PRODUCT))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(productService.getChanges(since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Błąd: " + e.getMessage());
+        }
     }
 
     @PostMapping
@@ -40,10 +99,34 @@ public class ProductController {
         productService.delete(id);
     }
 
+    // wiele create/update/delete w jednym zapytaniu i jednej transakcji; wynik osobno dla każdej pozycji.
+    // atomic=true: błąd dowolnej pozycji wycofuje całą paczkę (409)
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody List<ProductBatchItemDTO> items,
+                                   @RequestParam(defaultValue = "false") boolean atomic) {
+        try {
+            ProductBatchResponseDTO response = productBatchService.apply(items, atomic);
+            if (atomic && response.failed() > 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Błąd zapisu paczki: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/import-csv")
     public ResponseEntity<String> importCsv(@RequestParam("file") MultipartFile file) {
         try {
-            productImportService.importCSV(file);
+            ImportJobDTO result = productImportService.importCSV(file);
+            if (result.rowsRejected() > 0) {
+                return ResponseEntity.ok("Import zakończony. Zaimportowano " + result.rowsImported()
+                        + ", odrzucono " + result.rowsRejected() + " (pierwszy błąd w linii "
+                        + result.rejectedRows().get(0).line() + ": " + result.rejectedRows().get(0).message() + ").");
+            }
             return ResponseEntity.ok("Import zakończony pomyślnie.");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -51,4 +134,23 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/import-csv/async")
+    public ResponseEntity<?> importCsvAsync(@RequestParam("file") MultipartFile file) {
+        try {
+            String jobId = productImportService.startImport(file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportService.getJob(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Błąd podczas importu: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/import-csv/{jobId}")
+    public ResponseEntity<?> importStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(productImportService.getJob(jobId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
 }
@@ -1,10 +1,16 @@
 package com.saleinventory.controller;
 
 import com.saleinventory.model.Sale;
+import com.saleinventory.service.ChangeTracker;
 import com.saleinventory.service.SaleService;
+import com.saleinventory.service.SaleStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -12,14 +18,81 @@ import java.util.List;
 public class SaleController {
     @Autowired
     private SaleService service;
+    @Autowired
+    private SaleStatsService statsService;
+    @Autowired
+    private ChangeTracker changeTracker;
 
     @PostMapping
     public Sale addSale(@RequestBody Sale sale) {
         return service.save(sale);
     }
 
+    // ETag zmienia się z każdą zatwierdzoną zmianą sprzedaży; If-None-Match z aktualnym daje 304
     @GetMapping
-    public List<Sale> getSales() {
+    public List<Sale> getSales(WebRequest request) {
+        if (request.checkNotModified(changeTracker.etag(ChangeTracker.SALE))) {
+            return null;
+        }
         return service.getAll();
     }
+
+    // sprzedaże zmienione po numerze since; version z odpowiedzi to kolejne since
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(defaultValue = "500") int limit,
+                                        WebRequest request) {
+        if (request.checkNotModified(changeTracker.etag(ChangeTracker.SALE))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(service.getChanges(since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // np. ?granularity=week&from=2025-01-01&to=2025-03-31
+    @GetMapping("/stats/series")
+    public ResponseEntity<?> getSeries(@RequestParam(defaultValue = "day") String granularity,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(statsService.getSeries(SaleStatsService.parseGranularity(granularity), from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/stats/top-products")
+    public ResponseEntity<?> getTopProducts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(statsService.getTopProducts(from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    // ?period=month&date=2025-03-15 -> marzec vs luty; ?from=..&to=.. -> okno tej samej długości tuż przed from
+    @GetMapping("/stats/compare")
+    public ResponseEntity<?> compare(@RequestParam(defaultValue = "month") String period,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(statsService.compare(SaleStatsService.parseGranularity(period), date, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
 }
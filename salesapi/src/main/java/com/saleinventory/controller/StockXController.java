@@ -1,7 +1,8 @@
 package com.saleinventory.controller;
 
-import com.saleinventory.service.StockXApiService;
-import com.saleinventory.service.StockXAuthService;
+import com.saleinventory.service.StockXCallScheduler;
+import com.saleinventory.service.StockXResponseCache;
+import com.saleinventory.service.StockXSyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,18 +12,25 @@ import org.springframework.web.bind.annotation.*;
 public class StockXController {
 
     @Autowired
-    private StockXApiService stockXApiService;
+    private StockXSyncService stockXSyncService;
     @Autowired
-    private StockXAuthService stockXAuthService;
+    private StockXResponseCache responseCache;
+    @Autowired
+    private StockXCallScheduler callScheduler;
+
+    @PostMapping("/products/sync")
+    public ResponseEntity<?> sync() throws Exception {
+        return ResponseEntity.ok(stockXSyncService.syncProducts());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> cacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
 
-    @GetMapping("/api/stockx/products/sync")
-    public ResponseEntity<?> sync() {
-        try {
-            String token = stockXAuthService.getAccessToken();
-            return ResponseEntity.ok(stockXApiService.getProducts(token));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
-        }
+    @GetMapping("/ratelimit/stats")
+    public ResponseEntity<?> rateLimitStats() {
+        return ResponseEntity.ok(callScheduler.stats());
     }
 
     /*@GetMapping("/products")
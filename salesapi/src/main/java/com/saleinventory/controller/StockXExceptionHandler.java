@@ -0,0 +1,34 @@
+package com.saleinventory.controller;
+
+import com.saleinventory.service.StockXRateLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * Wspólna obsługa błędów kontrolerów StockX. Brak budżetu zapytań to 429 z Retry-After,
+ * pozostałe błędy 500 z komunikatem; standardowe błędy Spring MVC (np. zły parametr)
+ * zachowują swoje statusy dzięki ResponseEntityExceptionHandler.
+ */
+@RestControllerAdvice(assignableTypes = {StockXController.class, StockXListingController.class, StockXOrderController.class})
+public class StockXExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(StockXRateLimitException.class)
+    public ResponseEntity<String> rateLimited(StockXRateLimitException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> failed(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("Błąd: " + e.getMessage());
+    }
+}
@@ -1,12 +1,19 @@
 
 package com.saleinventory.controller;
 
-import com.saleinventory.service.StockXAuthService;
+import com.saleinventory.dto.StockXListingDTO;
 import com.saleinventory.service.StockXListingService;
+import com.saleinventory.service.StockXListingSnapshotService;
+import com.saleinventory.service.StockXResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/stockx/listings")
 public class StockXListingController {
@@ -14,7 +21,9 @@ public class StockXListingController {
     @Autowired
     private StockXListingService listingService;
     @Autowired
-    private StockXAuthService stockXAuthService;
+    private StockXResponseCache responseCache;
+    @Autowired
+    private StockXListingSnapshotService snapshotService;
 
     @GetMapping
     public ResponseEntity<?> getListings(
@@ -28,19 +37,74 @@ public class StockXListingController {
             @RequestParam(required = false) String listingStatuses,
             @RequestParam(required = false) String inventoryTypes,
             @RequestParam(required = false) String initiatedShipmentDisplayIds
+    ) throws Exception {
+        Object result = responseCache.get("listings",
+            Arrays.asList(pageNumber, pageSize, productIds, variantIds, batchIds,
+                fromDate, toDate, listingStatuses, inventoryTypes, initiatedShipmentDisplayIds),
+            priority -> listingService.getListings(priority,
+                pageNumber, pageSize, productIds, variantIds, batchIds,
+                fromDate, toDate, listingStatuses, inventoryTypes, initiatedShipmentDisplayIds
+            ));
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<?> getAllListings(
+            @RequestParam(required = false) String productIds,
+            @RequestParam(required = false) String variantIds,
+            @RequestParam(defaultValue = "ACTIVE") String listingStatuses,
+            @RequestParam(required = false) String inventoryTypes
+    ) throws Exception {
+        List<StockXListingDTO> listings = responseCache.get("listings-all",
+            Arrays.asList(productIds, variantIds, listingStatuses, inventoryTypes),
+            priority -> listingService.getAllListings(priority,
+                productIds, variantIds, listingStatuses, inventoryTypes
+            ));
+        return ResponseEntity.ok(Map.of("count", listings.size(), "listings", listings));
+    }
+
+    // lokalna kopia (reconciler co stockx.listings.sync-interval-ms); parametry i odpowiedź jak w GET /api/stockx/listings
+    @GetMapping("/local")
+    public ResponseEntity<?> getLocalListings(
+            @RequestParam(defaultValue = "1") int pageNumber,
+            @RequestParam(defaultValue = "25") int pageSize,
+            @RequestParam(required = false) String productIds,
+            @RequestParam(required = false) String variantIds,
+            @RequestParam(required = false) String listingStatuses,
+            @RequestParam(required = false) String inventoryTypes
     ) {
         try {
-            String token = stockXAuthService.getAccessToken();
-            long start = System.currentTimeMillis();
-            Object result = listingService.getListings(
-                token, pageNumber, pageSize, productIds, variantIds, batchIds,
-                fromDate, toDate, listingStatuses, inventoryTypes, initiatedShipmentDisplayIds
-            );
-            long duration = System.currentTimeMillis() - start;
-            System.out.println("Pobranie aktywnych listingów z API trwało: " + duration + " ms");
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(snapshotService.getListings(productIds, variantIds, listingStatuses,
+                    inventoryTypes, pageNumber, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/local/sync")
+    public ResponseEntity<?> syncLocalListings() throws Exception {
+        return ResponseEntity.ok(snapshotService.syncListings());
+    }
+
+    // np. ?since=2025-03-01T00:00:00Z - zmiany ceny/statusu w kolejności zapisu;
+    // następna strona: since=changedAt i afterId=id ostatniej pozycji
+    @GetMapping("/local/changes")
+    public ResponseEntity<?> getLocalChanges(@RequestParam(required = false) Instant since,
+                                             @RequestParam(required = false) Long afterId,
+                                             @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(snapshotService.getChangesSince(since, afterId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(500).body("Błąd podczas pobierania listingów: " + e.getMessage());
+            return ResponseEntity.status(500).body("Błąd: " + e.getMessage());
         }
     }
+
+    @GetMapping("/local/{listingId}/history")
+    public ResponseEntity<?> getLocalHistory(@PathVariable String listingId) {
+        return ResponseEntity.ok(snapshotService.getHistory(listingId));
+    }
 }
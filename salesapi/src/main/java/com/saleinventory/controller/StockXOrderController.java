@@ -1,10 +1,13 @@
 package com.saleinventory.controller;
 
-import com.saleinventory.service.StockXAuthService;
-import com.saleinventory.service.StockXOrderService;
+import com.saleinventory.service.StockXOrderExportService;
+import com.saleinventory.service.StockXOrderHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -13,9 +16,9 @@ import java.util.Map;
 public class StockXOrderController {
 
     @Autowired
-    private StockXOrderService stockXOrderService;
+    private StockXOrderHistoryService orderHistoryService;
     @Autowired
-    private StockXAuthService stockXAuthService;
+    private StockXOrderExportService orderExportService;
 
     @GetMapping("/history")
     public ResponseEntity<?> getOrders(
@@ -26,16 +29,28 @@ public class StockXOrderController {
             @RequestParam(defaultValue = "50") int pageSize,
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir
-    ) {
-        try {
-            long start = System.currentTimeMillis();
-            String token = stockXAuthService.getAccessToken();
-            Object orders = stockXOrderService.getHistoricalOrders(token, fromDate, toDate, orderStatus, pageNumber, pageSize, sortBy, sortDir);
-            long duration = System.currentTimeMillis() - start;
-            System.out.println("Pobranie histori z API trwało: " + duration + " ms");
-            return ResponseEntity.ok(orders);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Błąd podczas pobierania historii: " + e.getMessage());
-        }
+    ) throws Exception {
+        Object orders = orderHistoryService.getOrders(fromDate, toDate, orderStatus, pageNumber, pageSize, sortBy, sortDir);
+        return ResponseEntity.ok(orders);
+    }
+
+    @PostMapping("/history/sync")
+    public ResponseEntity<?> syncOrders() throws Exception {
+        int saved = orderHistoryService.syncOrders();
+        return ResponseEntity.ok(Map.of("saved", saved));
+    }
+
+    // cała historia ze StockX jako NDJSON, strumieniowo; np. curl -N ".../history/export?fromDate=2025-01-01"
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(required = false) String orderStatus
+    ) throws Exception {
+        StreamingResponseBody body = orderExportService.openExport(fromDate, toDate, orderStatus);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stockx-history.ndjson\"")
+                .body(body);
     }
 }
@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.util.List;
+
+// version: numer do podania jako since w następnym zapytaniu
+public record ChangesDTO<T>(long version, List<T> changed, List<Long> deleted, boolean hasMore) {}
@@ -0,0 +1,3 @@
+package com.saleinventory.dto;
+
+public record CsvRowErrorDTO(long line, String message) {}
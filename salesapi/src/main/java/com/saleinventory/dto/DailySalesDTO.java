@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesDTO(LocalDate day, int totalOrders, BigDecimal revenue) {}
@@ -0,0 +1,16 @@
+package com.saleinventory.dto;
+
+import com.saleinventory.model.Sale;
+
+import java.util.List;
+import java.util.Map;
+
+// źródło, które nie zdążyło albo zwróciło błąd, ma wartość null; szczegóły w sources.
+// products to pierwsza strona magazynu, sales - najnowsze sprzedaże (nie cała tabela)
+public record DashboardDTO(ProductSliceDTO products,
+                           List<Sale> sales,
+                           StockXOrderPageDTO history,
+                           StockXListingsResponse listings,
+                           List<MonthlySalesDTO> monthlySales,
+                           boolean partial,
+                           Map<String, DashboardSourceDTO> sources) {}
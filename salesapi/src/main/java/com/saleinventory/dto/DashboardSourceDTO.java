@@ -0,0 +1,4 @@
+package com.saleinventory.dto;
+
+// status: OK, TIMEOUT albo ERROR
+public record DashboardSourceDTO(String status, long durationMs, String error) {}
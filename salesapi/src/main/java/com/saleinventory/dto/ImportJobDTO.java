@@ -0,0 +1,15 @@
+package com.saleinventory.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ImportJobDTO(String jobId,
+                           String state,
+                           long rowsImported,
+                           long rowsRejected,
+                           long bytesRead,
+                           long bytesTotal,
+                           Instant startedAt,
+                           Instant finishedAt,
+                           String error,
+                           List<CsvRowErrorDTO> rejectedRows) {}
@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record InventoryDayDTO(LocalDate purchaseDate, long items, BigDecimal value) {}
@@ -0,0 +1,7 @@
+package com.saleinventory.dto;
+
+import com.saleinventory.model.ProductStatus;
+
+import java.math.BigDecimal;
+
+public record InventoryStatusDTO(ProductStatus status, long items, BigDecimal value) {}
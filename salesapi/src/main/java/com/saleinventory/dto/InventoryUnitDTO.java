@@ -0,0 +1,7 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// niesprzedany towar do dopasowania; quantity 0 traktujemy jak jedną sztukę
+public record InventoryUnitDTO(Long id, String sku, String size, BigDecimal purchasePrice, LocalDate purchaseDate, int quantity) {}
@@ -0,0 +1,15 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// id razem z changedAt to kursor kolejnej strony (since, afterId)
+public record ListingChangeDTO(Long id,
+                               String listingId,
+                               Instant changedAt,
+                               String oldStatus,
+                               String newStatus,
+                               BigDecimal oldAmount,
+                               BigDecimal newAmount,
+                               String productName,
+                               String variantName) {}
@@ -0,0 +1,9 @@
+package com.saleinventory.dto;
+
+public record ListingSyncResultDTO(int fetched,
+                                   int inserted,
+                                   int updated,
+                                   int deactivated,
+                                   int unchanged,
+                                   int changesLogged,
+                                   long durationMs) {}
@@ -0,0 +1,5 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+
+public record ListingSyncStateDTO(String listingId, String status, BigDecimal amount, String contentHash) {}
@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+
+// ordersWithoutCost: dopasowane zamówienia, których towar nie miał ceny zakupu (liczone z kosztem 0)
+public record MonthlyProfitDTO(String month, int orders, BigDecimal payout, BigDecimal cost, BigDecimal profit, int ordersWithoutCost) {}
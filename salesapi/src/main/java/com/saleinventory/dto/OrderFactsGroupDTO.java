@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+
+// key: dzień, tydzień ISO (2025-W11), miesiąc (2025-03), nazwa produktu albo produktu z wariantem
+public record OrderFactsGroupDTO(String key, long orders, BigDecimal payout) {}
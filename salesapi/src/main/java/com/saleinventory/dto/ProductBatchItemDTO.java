@@ -0,0 +1,18 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// op: create, update albo delete; update/delete wymagają id i version z ostatniego odczytu;
+// w update pola null zostają bez zmian
+public record ProductBatchItemDTO(String op,
+                                  Long id,
+                                  Long version,
+                                  String sku,
+                                  String size,
+                                  String name,
+                                  BigDecimal purchasePrice,
+                                  String status,
+                                  LocalDate purchaseDate,
+                                  LocalDate saleDate,
+                                  Integer quantity) {}
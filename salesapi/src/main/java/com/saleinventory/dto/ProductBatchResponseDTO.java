@@ -0,0 +1,5 @@
+package com.saleinventory.dto;
+
+import java.util.List;
+
+public record ProductBatchResponseDTO(int applied, int failed, long durationMs, List<ProductBatchResultDTO> results) {}
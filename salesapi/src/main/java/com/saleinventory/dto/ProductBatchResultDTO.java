@@ -0,0 +1,7 @@
+package com.saleinventory.dto;
+
+// wynik pojedynczej operacji; id i version to stan po zapisie (dla delete - usunięta wersja)
+public record ProductBatchResultDTO(int index, String op, Status status, Long id, Long version, String message) {
+
+    public enum Status { OK, INVALID, NOT_FOUND, CONFLICT, SKIPPED }
+}
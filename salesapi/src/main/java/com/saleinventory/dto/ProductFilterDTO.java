@@ -0,0 +1,14 @@
+package com.saleinventory.dto;
+
+import com.saleinventory.model.ProductStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public record ProductFilterDTO(String sku,
+                               String size,
+                               ProductStatus status,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate soldFrom,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate soldTo) {}
@@ -0,0 +1,5 @@
+package com.saleinventory.dto;
+
+import java.util.List;
+
+public record ProductSliceDTO(List<ProductSummaryDTO> items, String nextCursor) {}
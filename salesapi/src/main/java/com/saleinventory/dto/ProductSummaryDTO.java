@@ -0,0 +1,17 @@
+package com.saleinventory.dto;
+
+import com.saleinventory.model.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ProductSummaryDTO(Long id,
+                                String sku,
+                                String size,
+                                String name,
+                                BigDecimal purchasePrice,
+                                ProductStatus status,
+                                LocalDate purchaseDate,
+                                LocalDate saleDate,
+                                int quantity,
+                                Long version) {}
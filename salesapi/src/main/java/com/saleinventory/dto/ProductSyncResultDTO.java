@@ -0,0 +1,7 @@
+package com.saleinventory.dto;
+
+public record ProductSyncResultDTO(int fetched,
+                                   int inserted,
+                                   int updated,
+                                   int unchanged,
+                                   long durationMs) {}
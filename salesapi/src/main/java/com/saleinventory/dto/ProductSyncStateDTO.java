@@ -0,0 +1,3 @@
+package com.saleinventory.dto;
+
+public record ProductSyncStateDTO(String externalId, Long id, String syncHash) {}
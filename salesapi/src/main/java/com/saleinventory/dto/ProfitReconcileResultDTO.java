@@ -0,0 +1,3 @@
+package com.saleinventory.dto;
+
+public record ProfitReconcileResultDTO(int orders, int matched, int unmatched, int productsSold, long durationMs) {}
@@ -0,0 +1,14 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+// period: 2025-03-14 (dzień), 2025-W11 (tydzień ISO), 2025-03 (miesiąc); start to pierwszy dzień okresu
+public record SalesBucketDTO(String period, LocalDate start, long sales, long units, BigDecimal revenue) {
+
+    // wiersz dzienny z zapytania GROUP BY
+    public SalesBucketDTO(LocalDate day, long sales, long units, double revenue) {
+        this(day.toString(), day, sales, units, BigDecimal.valueOf(revenue).setScale(2, RoundingMode.HALF_UP));
+    }
+}
@@ -0,0 +1,16 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// zmiany procentowe są null, gdy w poprzednim okresie nie było sprzedaży
+public record SalesComparisonDTO(LocalDate from,
+                                 LocalDate to,
+                                 LocalDate previousFrom,
+                                 LocalDate previousTo,
+                                 SalesTotalsDTO current,
+                                 SalesTotalsDTO previous,
+                                 BigDecimal revenueDelta,
+                                 Double revenueChangePct,
+                                 long unitsDelta,
+                                 Double unitsChangePct) {}
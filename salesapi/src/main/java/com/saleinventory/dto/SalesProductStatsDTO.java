@@ -0,0 +1,11 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public record SalesProductStatsDTO(String productName, long sales, long units, BigDecimal revenue) {
+
+    public SalesProductStatsDTO(String productName, long sales, long units, double revenue) {
+        this(productName, sales, units, BigDecimal.valueOf(revenue).setScale(2, RoundingMode.HALF_UP));
+    }
+}
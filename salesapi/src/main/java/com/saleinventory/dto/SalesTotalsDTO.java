@@ -0,0 +1,11 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public record SalesTotalsDTO(long sales, long units, BigDecimal revenue) {
+
+    public SalesTotalsDTO(long sales, long units, double revenue) {
+        this(sales, units, BigDecimal.valueOf(revenue).setScale(2, RoundingMode.HALF_UP));
+    }
+}
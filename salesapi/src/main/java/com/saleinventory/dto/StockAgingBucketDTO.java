@@ -0,0 +1,6 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+
+// minDays/maxDays włącznie; maxDays == null oznacza kubełek otwarty
+public record StockAgingBucketDTO(String bucket, int minDays, Integer maxDays, long items, BigDecimal value) {}
@@ -0,0 +1,12 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockXCatalogProductDTO(String productId,
+                                      String title,
+                                      String styleId,
+                                      String brand,
+                                      String productType) {}
@@ -0,0 +1,19 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockXListingDTO(String listingId,
+                               String status,
+                               BigDecimal amount,
+                               String currencyCode,
+                               String inventoryType,
+                               Instant createdAt,
+                               Instant updatedAt,
+                               StockXProductRefDTO product,
+                               StockXVariantRefDTO variant) {}
@@ -0,0 +1,20 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StockXListingsResponse(Integer count,
+                                     int pageSize,
+                                     int pageNumber,
+                                     boolean hasNextPage,
+                                     List<StockXListingDTO> listings) implements StockXPage<StockXListingDTO> {
+
+    @Override
+    @JsonIgnore
+    public List<StockXListingDTO> items() {
+        return listings != null ? listings : List.of();
+    }
+}
@@ -0,0 +1,37 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// tylko pola używane przez synchronizację, analitykę i panel historii
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockXOrderDTO(String orderNumber,
+                             String listingId,
+                             BigDecimal amount,
+                             String currencyCode,
+                             Instant createdAt,
+                             Instant updatedAt,
+                             String status,
+                             String inventoryType,
+                             StockXProductRefDTO product,
+                             StockXVariantRefDTO variant,
+                             StockXPayoutDTO payout,
+                             AuthenticationDetails authenticationDetails,
+                             InitiatedShipments initiatedShipments) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AuthenticationDetails(String status) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record InitiatedShipments(Shipment inbound) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Shipment(String displayId) {}
+}
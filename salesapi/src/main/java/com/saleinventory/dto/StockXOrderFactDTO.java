@@ -0,0 +1,13 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// kolumny stockx_order potrzebne do OrderFactStore, bez ładowania payloadu
+public record StockXOrderFactDTO(String orderNumber,
+                                 Instant createdAt,
+                                 BigDecimal totalPayout,
+                                 String productId,
+                                 String productName,
+                                 String variantId,
+                                 String variantName) {}
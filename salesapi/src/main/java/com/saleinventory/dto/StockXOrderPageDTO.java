@@ -0,0 +1,7 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+public record StockXOrderPageDTO(long count, int pageNumber, int pageSize, boolean hasNextPage, List<JsonNode> orders) {}
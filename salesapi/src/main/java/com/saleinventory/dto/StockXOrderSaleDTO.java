@@ -0,0 +1,12 @@
+package com.saleinventory.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// zamówienie czekające na dopasowanie do towaru (bez payloadu)
+public record StockXOrderSaleDTO(String orderNumber,
+                                 Instant createdAt,
+                                 String status,
+                                 BigDecimal totalPayout,
+                                 String sku,
+                                 String size) {}
@@ -0,0 +1,20 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StockXOrdersResponse(Integer count,
+                                   int pageSize,
+                                   int pageNumber,
+                                   boolean hasNextPage,
+                                   List<StockXOrderDTO> orders) implements StockXPage<StockXOrderDTO> {
+
+    @Override
+    @JsonIgnore
+    public List<StockXOrderDTO> items() {
+        return orders != null ? orders : List.of();
+    }
+}
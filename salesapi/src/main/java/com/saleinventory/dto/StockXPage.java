@@ -0,0 +1,12 @@
+package com.saleinventory.dto;
+
+import java.util.List;
+
+// wspólny kształt stronicowanych odpowiedzi StockX (count może nie przyjść)
+public interface StockXPage<T> {
+    Integer count();
+
+    boolean hasNextPage();
+
+    List<T> items();
+}
@@ -0,0 +1,20 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockXPayoutDTO(BigDecimal totalPayout,
+                              BigDecimal salePrice,
+                              BigDecimal totalAdjustments,
+                              String currencyCode,
+                              List<Adjustment> adjustments) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Adjustment(String adjustmentType, BigDecimal amount, BigDecimal percentage) {}
+}
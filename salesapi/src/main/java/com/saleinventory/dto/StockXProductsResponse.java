@@ -0,0 +1,20 @@
+package com.saleinventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StockXProductsResponse(Integer count,
+                                     int pageSize,
+                                     int pageNumber,
+                                     boolean hasNextPage,
+                                     List<StockXCatalogProductDTO> products) implements StockXPage<StockXCatalogProductDTO> {
+
+    @Override
+    @JsonIgnore
+    public List<StockXCatalogProductDTO> items() {
+        return products != null ? products : List.of();
+    }
+}
@@ -0,0 +1,7 @@
+package com.saleinventory.model;
+
+// encje z wersją zmian; numer nadaje ChangeVersionListener przy każdym INSERT i UPDATE
+public interface ChangeTracked {
+
+    void setChangeVersion(Long changeVersion);
+}
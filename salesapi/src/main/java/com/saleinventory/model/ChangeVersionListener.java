@@ -0,0 +1,20 @@
+package com.saleinventory.model;
+
+import com.saleinventory.service.ChangeTracker;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Hibernate tworzy listener przez kontener Springa; ObjectProvider, bo ChangeTracker sam zależy od repozytoriów
+public class ChangeVersionListener {
+
+    @Autowired
+    private ObjectProvider<ChangeTracker> changeTracker;
+
+    @PrePersist
+    @PreUpdate
+    void assignChangeVersion(Object entity) {
+        ((ChangeTracked) entity).setChangeVersion(changeTracker.getObject().next(ChangeTracker.entityName(entity)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_sales_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollup {
+
+    @Id
+    @Column(name = "sales_day")
+    private LocalDate day;
+    private int totalOrders;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
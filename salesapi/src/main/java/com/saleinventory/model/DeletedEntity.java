@@ -0,0 +1,24 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// ślad usunięcia dla synchronizacji przyrostowej; version z tej samej numeracji co change_version
+@Entity
+@Table(name = "deleted_entity", indexes = {
+        @Index(name = "idx_deleted_entity_entity_version", columnList = "entity, version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedEntity {
+
+    @Id
+    private Long version;
+    @Column(length = 16)
+    private String entity;
+    private Long entityId;
+    private Instant deletedAt;
+}
@@ -0,0 +1,22 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "monthly_sales_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySalesRollup {
+
+    // yyyy-MM, sortuje się leksykograficznie tak samo jak chronologicznie
+    @Id
+    @Column(name = "sales_month", length = 7)
+    private String month;
+    private int totalOrders;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
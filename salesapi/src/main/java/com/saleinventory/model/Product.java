@@ -2,24 +2,56 @@ package com.saleinventory.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_product_external_id", columnList = "externalId", unique = true),
+        @Index(name = "idx_product_sku_size", columnList = "sku, size"),
+        @Index(name = "idx_product_status_purchase_date", columnList = "status, purchaseDate"),
+        @Index(name = "idx_product_purchase_date", columnList = "purchaseDate"),
+        @Index(name = "idx_product_sale_date", columnList = "saleDate"),
+        @Index(name = "idx_product_change_version", columnList = "changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Product {
+public class Product implements ChangeTracked {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // sekwencja z pulą identyfikatorów pozwala Hibernate wysyłać INSERT-y w batchach JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     private String externalId;
 
     private String sku;
     private String size;
     private String name;
-    private Double purchasePrice;
-    private String status;
-    private String purchaseDate;
-    private String saleDate;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal purchasePrice;
+    // zwykły varchar, a nie natywny ENUM H2 - ten sam schemat na H2 i PostgreSQL
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private ProductStatus status;
+    private LocalDate purchaseDate;
+    private LocalDate saleDate;
     private int quantity;
+
+    // skrót pól synchronizowanych ze StockX - wiersz jest aktualizowany tylko gdy się zmienił
+    @Column(length = 64)
+    private String syncHash;
+
+    // optymistyczna blokada: UPDATE/DELETE z "where version = ?" i podbiciem wersji
+    @Version
+    private Long version;
+
+    // numer ostatniej zmiany dla /api/products/changes?since=
+    private Long changeVersion;
 }
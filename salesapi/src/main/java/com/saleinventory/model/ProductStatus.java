@@ -0,0 +1,17 @@
+package com.saleinventory.model;
+
+public enum ProductStatus {
+    IN_STOCK,
+    LISTED,
+    SOLD;
+
+    // wartości z CSV i formularza bywają pisane małymi literami
+    public static ProductStatus parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nieznany status produktu: '" + value + "'");
+        }
+    }
+}
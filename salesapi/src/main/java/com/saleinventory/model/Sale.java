@@ -1,20 +1,31 @@
 package com.saleinventory.model;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
+import lombok.*;
 
 import java.time.LocalDate;
 
 @Entity
-public class Sale {
+@Table(indexes = {
+        @Index(name = "idx_sale_sale_date", columnList = "saleDate"),
+        @Index(name = "idx_sale_product_name", columnList = "productName"),
+        @Index(name = "idx_sale_change_version", columnList = "changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Sale implements ChangeTracked {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String productName;
     private int quantity;
+    // cena jednostkowa; przychód pozycji to price * quantity
     private double price;
     private LocalDate saleDate;
+
+    // numer ostatniej zmiany dla /api/sales/changes?since=
+    private Long changeVersion;
 }
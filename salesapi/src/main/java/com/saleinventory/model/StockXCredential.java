@@ -0,0 +1,24 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "stockx_credential")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockXCredential {
+
+    // jedno konto StockX na instancję aplikacji
+    @Id
+    private String id;
+    @Column(length = 4096)
+    private String accessToken;
+    @Column(length = 4096)
+    private String refreshToken;
+    private Instant expiresAt;
+    private Instant updatedAt;
+}
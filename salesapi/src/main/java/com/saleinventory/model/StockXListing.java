@@ -0,0 +1,47 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// ostatni znany stan listingu StockX; aktualizowany przez StockXListingSnapshotService
+@Entity
+@Table(name = "stockx_listing", indexes = {
+        @Index(name = "idx_stockx_listing_product_status", columnList = "productId, status"),
+        @Index(name = "idx_stockx_listing_variant_status", columnList = "variantId, status"),
+        @Index(name = "idx_stockx_listing_status_created_at", columnList = "status, createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockXListing {
+
+    @Id
+    private String listingId;
+
+    @Column(length = 32)
+    private String status;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+    @Column(length = 8)
+    private String currencyCode;
+    @Column(length = 32)
+    private String inventoryType;
+
+    private String productId;
+    private String productName;
+    private String styleId;
+    private String variantId;
+    private String variantName;
+    private String variantValue;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    // SHA-256 zapisywanych pól - bez zmiany skrótu reconciler nie dotyka wiersza
+    @Column(length = 64)
+    private String contentHash;
+    private Instant lastChangedAt;
+}
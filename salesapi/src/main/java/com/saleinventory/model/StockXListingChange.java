@@ -0,0 +1,39 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// zmiana ceny lub statusu listingu; nowy listing ma old* = null
+@Entity
+@Table(name = "stockx_listing_change", indexes = {
+        @Index(name = "idx_stockx_listing_change_changed_at", columnList = "changedAt"),
+        @Index(name = "idx_stockx_listing_change_listing", columnList = "listingId, changedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockXListingChange {
+
+    @Id
+    // pula identyfikatorów z sekwencji - INSERT-y dziennika idą w batchach JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stockx_listing_change_seq")
+    @SequenceGenerator(name = "stockx_listing_change_seq", sequenceName = "stockx_listing_change_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String listingId;
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    @Column(length = 32)
+    private String oldStatus;
+    @Column(length = 32)
+    private String newStatus;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal oldAmount;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal newAmount;
+}
@@ -1,34 +1,47 @@
 package com.saleinventory.model;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.*;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "stockx_order", indexes = {
+        @Index(name = "idx_stockx_order_created_at", columnList = "createdAt"),
+        @Index(name = "idx_stockx_order_status_created_at", columnList = "status, createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class StockXOrder {
-    private LocalDateTime orderDate;
-    private BigDecimal amount;
-    private String productId;
 
-    public LocalDateTime getOrderDate() {
-        return orderDate;
-    }
+    @Id
+    private String orderNumber;
+    private String listingId;
 
-    public void setOrderDate(LocalDateTime orderDate) {
-        this.orderDate = orderDate;
-    }
+    private Instant createdAt;
+    private Instant updatedAt;
+    private String status;
+    private String inventoryType;
 
-    public BigDecimal getAmount() {
-        return amount;
-    }
-
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
-    }
-
-    public String getProductId() {
-        return productId;
-    }
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+    private String currencyCode;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalPayout;
 
-    public void setProductId(String productId) {
-        this.productId = productId;
-    }
-}
\ No newline at end of file
+    private String productId;
+    private String productName;
+    private String variantId;
+    private String variantName;
+    // product.styleId i variant.variantValue - klucz dopasowania do Product (sku, size)
+    private String sku;
+    private String size;
+
+    // zamówienie zapisane jako JSON StockXOrderDTO (tylko pola DTO, nie surowa odpowiedź StockX) -
+    // historia zwraca go frontendowi bez ponownego mapowania;
+    // text zamiast @Lob, bo na PostgreSQL @Lob to kolumna oid
+    @Column(columnDefinition = "text")
+    private String payload;
+}
@@ -0,0 +1,30 @@
+package com.saleinventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// zamówienie StockX rozliczone z konkretną sztuką towaru; każde zamówienie najwyżej raz
+@Entity
+@Table(name = "stockx_order_match", indexes = {
+        @Index(name = "idx_stockx_order_match_sold_at", columnList = "soldAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockXOrderMatch {
+
+    @Id
+    private String orderNumber;
+    private Long productId;
+
+    private Instant soldAt;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal payout;
+    // cena zakupu sztuki; null, gdy produkt nie miał ceny
+    @Column(precision = 12, scale = 2)
+    private BigDecimal cost;
+    private Instant matchedAt;
+}
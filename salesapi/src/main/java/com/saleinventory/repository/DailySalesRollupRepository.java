@@ -0,0 +1,12 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, LocalDate> {
+
+    List<DailySalesRollup> findByDayBetweenOrderByDay(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,17 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.model.DeletedEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DeletedEntityRepository extends JpaRepository<DeletedEntity, Long> {
+
+    @Query("select d.entityId from DeletedEntity d where d.entity = :entity and d.version > :since and d.version <= :upTo")
+    List<Long> findDeletedIds(@Param("entity") String entity, @Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("select coalesce(max(d.version), 0) from DeletedEntity d")
+    long maxVersion();
+}
@@ -0,0 +1,11 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.model.MonthlySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MonthlySalesRollupRepository extends JpaRepository<MonthlySalesRollup, String> {
+
+    List<MonthlySalesRollup> findByMonthBetweenOrderByMonth(String from, String to);
+}
@@ -1,12 +1,54 @@
 package com.saleinventory.repository;
 
+import com.saleinventory.dto.InventoryDayDTO;
+import com.saleinventory.dto.InventoryStatusDTO;
+import com.saleinventory.dto.InventoryUnitDTO;
+import com.saleinventory.dto.ProductSyncStateDTO;
 import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     boolean existsByExternalId(String externalId);
 
     Optional<Product> findByName(String name);
+
+    @Query("select new com.saleinventory.dto.ProductSyncStateDTO(p.externalId, p.id, p.syncHash) "
+            + "from Product p where p.externalId is not null")
+    List<ProductSyncStateDTO> findSyncStates();
+
+    // agregaty liczone w bazie; zakres (status, purchaseDate) idzie po indeksie idx_product_status_purchase_date.
+    // Wiersz produktu może oznaczać kilka sztuk, więc liczymy sztuki (quantity) i wartość cena * quantity
+    @Query("select new com.saleinventory.dto.InventoryStatusDTO(p.status, sum(p.quantity), coalesce(sum(p.purchasePrice * p.quantity), 0)) "
+            + "from Product p where p.status = :status and p.purchaseDate between :from and :to group by p.status")
+    Optional<InventoryStatusDTO> sumByStatusAndPurchaseDate(@Param("status") ProductStatus status,
+                                                            @Param("from") LocalDate from,
+                                                            @Param("to") LocalDate to);
+
+    @Query("select new com.saleinventory.dto.InventoryStatusDTO(p.status, sum(p.quantity), coalesce(sum(p.purchasePrice * p.quantity), 0)) "
+            + "from Product p group by p.status order by p.status")
+    List<InventoryStatusDTO> sumByStatus();
+
+    @Query("select new com.saleinventory.dto.InventoryDayDTO(p.purchaseDate, sum(p.quantity), coalesce(sum(p.purchasePrice * p.quantity), 0)) "
+            + "from Product p where p.status = :status and p.purchaseDate <= :asOf "
+            + "group by p.purchaseDate order by p.purchaseDate desc")
+    List<InventoryDayDTO> sumByPurchaseDate(@Param("status") ProductStatus status, @Param("asOf") LocalDate asOf);
+
+    // towar do dopasowania ze sprzedażą StockX, najstarsze zakupy pierwsze (FIFO)
+    @Query("select new com.saleinventory.dto.InventoryUnitDTO(p.id, p.sku, p.size, p.purchasePrice, p.purchaseDate, p.quantity) "
+            + "from Product p where p.sku is not null and (p.status is null or p.status <> com.saleinventory.model.ProductStatus.SOLD) "
+            + "order by p.purchaseDate asc nulls last, p.id")
+    List<InventoryUnitDTO> findUnsoldUnits();
+
+    // zakres po indeksie idx_product_change_version; upTo to watermark z ChangeTracker
+    @Query("select p from Product p where p.changeVersion > :since and p.changeVersion <= :upTo order by p.changeVersion")
+    List<Product> findChanged(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
 }
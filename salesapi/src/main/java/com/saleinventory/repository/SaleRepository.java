@@ -1,8 +1,35 @@
 package com.saleinventory.repository;
 
+import com.saleinventory.dto.SalesBucketDTO;
+import com.saleinventory.dto.SalesProductStatsDTO;
+import com.saleinventory.dto.SalesTotalsDTO;
 import com.saleinventory.model.Sale;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface SaleRepository extends JpaRepository<Sale, Long> {
-}
 
+    @Query("select new com.saleinventory.dto.SalesBucketDTO(s.saleDate, count(s), sum(s.quantity), sum(s.price * s.quantity)) "
+            + "from Sale s where s.saleDate between :from and :to group by s.saleDate order by s.saleDate")
+    List<SalesBucketDTO> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.saleinventory.dto.SalesProductStatsDTO(s.productName, count(s), sum(s.quantity), sum(s.price * s.quantity)) "
+            + "from Sale s where s.saleDate between :from and :to "
+            + "group by s.productName order by sum(s.price * s.quantity) desc, s.productName")
+    List<SalesProductStatsDTO> topProductsByRevenue(@Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    @Query("select new com.saleinventory.dto.SalesTotalsDTO(count(s), coalesce(sum(s.quantity), 0), coalesce(sum(s.price * s.quantity), 0.0)) "
+            + "from Sale s where s.saleDate between :from and :to")
+    SalesTotalsDTO sumTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select s from Sale s where s.changeVersion > :since and s.changeVersion <= :upTo order by s.changeVersion")
+    List<Sale> findChanged(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    // najnowsze sprzedaże po indeksie idx_sale_sale_date
+    List<Sale> findAllByOrderBySaleDateDescIdDesc(Limit limit);
+}
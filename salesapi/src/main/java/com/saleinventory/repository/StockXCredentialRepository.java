@@ -0,0 +1,7 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.model.StockXCredential;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockXCredentialRepository extends JpaRepository<StockXCredential, String> {
+}
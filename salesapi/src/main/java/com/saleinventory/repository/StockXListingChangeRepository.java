@@ -0,0 +1,24 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.dto.ListingChangeDTO;
+import com.saleinventory.model.StockXListingChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockXListingChangeRepository extends JpaRepository<StockXListingChange, Long> {
+
+    // zakres po indeksie idx_stockx_listing_change_changed_at; jedna synchronizacja zapisuje wszystkie
+    // zmiany z tym samym changedAt, więc strona kończy się na parze (changedAt, id), a nie na samym czasie
+    @Query("select new com.saleinventory.dto.ListingChangeDTO(c.id, c.listingId, c.changedAt, c.oldStatus, c.newStatus, "
+            + "c.oldAmount, c.newAmount, l.productName, l.variantName) "
+            + "from StockXListingChange c left join StockXListing l on l.listingId = c.listingId "
+            + "where c.changedAt > :since or (c.changedAt = :since and c.id > :afterId) order by c.changedAt, c.id")
+    List<ListingChangeDTO> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId, Limit limit);
+
+    List<StockXListingChange> findByListingIdOrderByChangedAt(String listingId);
+}
@@ -0,0 +1,17 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.dto.ListingSyncStateDTO;
+import com.saleinventory.model.StockXListing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface StockXListingRepository extends JpaRepository<StockXListing, String>, JpaSpecificationExecutor<StockXListing> {
+
+    // sam skrót i pola dziennika zmian, bez ładowania encji
+    @Query("select new com.saleinventory.dto.ListingSyncStateDTO(l.listingId, l.status, l.amount, l.contentHash) "
+            + "from StockXListing l")
+    List<ListingSyncStateDTO> findSyncStates();
+}
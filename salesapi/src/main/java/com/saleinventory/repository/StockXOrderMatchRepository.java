@@ -0,0 +1,12 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.model.StockXOrderMatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockXOrderMatchRepository extends JpaRepository<StockXOrderMatch, String> {
+
+    List<StockXOrderMatch> findBySoldAtGreaterThanEqualAndSoldAtLessThan(Instant from, Instant to);
+}
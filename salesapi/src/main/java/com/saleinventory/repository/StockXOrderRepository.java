@@ -0,0 +1,48 @@
+package com.saleinventory.repository;
+
+import com.saleinventory.dto.StockXOrderFactDTO;
+import com.saleinventory.dto.StockXOrderSaleDTO;
+import com.saleinventory.model.StockXOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockXOrderRepository extends JpaRepository<StockXOrder, String> {
+
+    Optional<StockXOrder> findTopByOrderByCreatedAtDescOrderNumberDesc();
+
+    @Query("select o from StockXOrder o"
+            + " where (:status is null or o.status = :status)"
+            + " and (:from is null or o.createdAt >= :from)"
+            + " and (:to is null or o.createdAt < :to)")
+    Page<StockXOrder> search(@Param("status") String status,
+                             @Param("from") Instant from,
+                             @Param("to") Instant to,
+                             Pageable pageable);
+
+    List<StockXOrder> findByCreatedAtGreaterThanEqualAndCreatedAtLessThan(Instant from, Instant to);
+
+    // stronicowanie po kluczu (orderNumber > after), bez payloadu
+    @Query("select new com.saleinventory.dto.StockXOrderFactDTO(o.orderNumber, o.createdAt, o.totalPayout,"
+            + " o.productId, o.productName, o.variantId, o.variantName)"
+            + " from StockXOrder o where o.orderNumber > :after order by o.orderNumber")
+    List<StockXOrderFactDTO> findFactsAfter(@Param("after") String after, Limit limit);
+
+    // zamówienia jeszcze nierozliczone z towarem, w kolejności sprzedaży (FIFO)
+    @Query("select new com.saleinventory.dto.StockXOrderSaleDTO(o.orderNumber, o.createdAt, o.status, o.totalPayout, o.sku, o.size)"
+            + " from StockXOrder o where o.sku is not null and o.totalPayout is not null"
+            + " and not exists (select 1 from StockXOrderMatch m where m.orderNumber = o.orderNumber)"
+            + " order by o.createdAt, o.orderNumber")
+    List<StockXOrderSaleDTO> findUnmatchedSales();
+
+    @Query("select o from StockXOrder o where o.sku is null and o.payload is not null and o.orderNumber > :after"
+            + " order by o.orderNumber")
+    List<StockXOrder> findWithoutSkuAfter(@Param("after") String after, Limit limit);
+}
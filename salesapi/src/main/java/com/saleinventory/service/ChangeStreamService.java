@@ -0,0 +1,93 @@
+package com.saleinventory.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Powiadomienia SSE o zatwierdzonych zmianach produktów i sprzedaży. Zdarzenie niesie tylko
+ * encję i numer zmiany - klient dociąga dane przez /changes?since=. Wysyłka idzie jednym wątkiem
+ * w tle, żeby wolny klient nie wstrzymywał transakcji, która zmianę zatwierdziła.
+ */
+@Service
+public class ChangeStreamService implements MeterBinder {
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @Value("${changes.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("change-stream").factory());
+
+    @PostConstruct
+    void init() {
+        changeTracker.addListener((entity, version) -> sender.execute(() -> broadcast(
+                SseEmitter.event().name("change").id(Long.toString(version))
+                        .data(Map.of("entity", entity, "version", version)))));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("changes.stream.clients", emitters, List::size)
+                .description("Otwarte strumienie SSE zmian")
+                .register(registry);
+    }
+
+    // pierwsze zdarzenie "ready" podaje bieżący numer - od niego klient liczy since
+    public SseEmitter subscribe() throws IOException {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        long version = changeTracker.watermark();
+        emitter.send(SseEmitter.event().name("ready").id(Long.toString(version)).data(Map.of("version", version)));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    // komentarz SSE co jakiś czas, żeby proxy nie zamykały bezczynnych połączeń
+    @Scheduled(fixedDelayString = "${changes.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            sender.execute(() -> broadcast(SseEmitter.event().comment("ping")));
+        }
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        // build() dokleja separator przy każdym wywołaniu, więc zdarzenie budujemy raz dla wszystkich
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(data);
+            } catch (IOException | IllegalStateException e) {
+                // klient się rozłączył
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
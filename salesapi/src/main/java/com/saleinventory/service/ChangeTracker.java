@@ -0,0 +1,205 @@
+package com.saleinventory.service;
+
+import com.saleinventory.model.DeletedEntity;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.Sale;
+import com.saleinventory.repository.DeletedEntityRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Jedna rosnąca numeracja zmian produktów i sprzedaży. Klient pamięta ostatnio widziany numer
+ * i pyta o zmiany "since". Numer z niezatwierdzonej transakcji może zostać zatwierdzony później niż
+ * wyższy numer innej transakcji, dlatego odpowiedzi sięgają tylko do watermark() - poniżej
+ * najstarszej transakcji w toku - i dopiero wtedy zmiana jest ogłaszana słuchaczom.
+ * Numery pochodzą z sekwencji change_version_seq (V7), więc są unikalne także przy kilku instancjach;
+ * transakcja bierze blok VERSION_BLOCK numerów jednym nextval. Watermark widzi jednak tylko
+ * transakcje tej instancji.
+ */
+@Component
+public class ChangeTracker implements SmartInitializingSingleton {
+
+    public static final String PRODUCT = "product";
+    public static final String SALE = "sale";
+
+    // increment sekwencji change_version_seq
+    public static final int VERSION_BLOCK = 50;
+
+    private static final Object TX_KEY = new Object();
+
+    // numery nadane w jednej transakcji
+    private static final class TxChanges {
+        long minVersion = Long.MAX_VALUE;
+        long nextVersion;
+        long blockEnd = -1;
+        final Map<String, Long> maxVersions = new HashMap<>();
+    }
+
+    @Autowired
+    private DeletedEntityRepository deletedEntityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ReentrantLock, bo pod blokadą jest nextval do bazy (wątki wirtualne)
+    private final ReentrantLock lock = new ReentrantLock();
+    private long counter;
+    // najniższy numer każdej transakcji w toku -> liczba takich transakcji
+    private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+    // zatwierdzone, ale jeszcze niewidoczne (poniżej jest transakcja w toku)
+    private final Map<String, Long> pending = new HashMap<>();
+    // ostatnia widoczna zmiana per encja - podstawa ETag
+    private final Map<String, Long> visible = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Long>> listeners = new CopyOnWriteArrayList<>();
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // watermark startuje od największej zapisanej wersji; przed startem Tomcata i @Scheduled
+    @Override
+    public void afterSingletonsInstantiated() {
+        long max = Math.max(deletedEntityRepository.maxVersion(),
+                Math.max(maxChangeVersion("Product"), maxChangeVersion("Sale")));
+        lock.lock();
+        try {
+            counter = Math.max(counter, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static String entityName(Object entity) {
+        if (entity instanceof Product) return PRODUCT;
+        if (entity instanceof Sale) return SALE;
+        throw new IllegalArgumentException("Encja bez śledzenia zmian: " + entity.getClass().getSimpleName());
+    }
+
+    public long next(String entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            long version;
+            lock.lock();
+            try {
+                version = nextFromSequence();
+                counter = Math.max(counter, version);
+            } finally {
+                lock.unlock();
+            }
+            complete(Map.of(entity, version), Long.MAX_VALUE);
+            return version;
+        }
+        TxChanges tx = (TxChanges) TransactionSynchronizationManager.getResource(TX_KEY);
+        if (tx == null) {
+            TxChanges changes = new TxChanges();
+            TransactionSynchronizationManager.bindResource(TX_KEY, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+                    complete(status == STATUS_COMMITTED ? changes.maxVersions : Map.of(), changes.minVersion);
+                }
+            });
+            tx = changes;
+        }
+        long version;
+        // pobranie bloku i wpis do inFlight pod jedną blokadą - inaczej watermark mógłby minąć numer,
+        // który jest już pobrany, ale jeszcze niezarejestrowany
+        lock.lock();
+        try {
+            if (tx.nextVersion > tx.blockEnd) {
+                tx.nextVersion = nextFromSequence();
+                tx.blockEnd = tx.nextVersion + VERSION_BLOCK - 1;
+            }
+            version = tx.nextVersion++;
+            counter = Math.max(counter, version);
+            if (tx.minVersion == Long.MAX_VALUE) {
+                tx.minVersion = version;
+                inFlight.merge(version, 1, Integer::sum);
+            }
+        } finally {
+            lock.unlock();
+        }
+        tx.maxVersions.merge(entity, version, Math::max);
+        return version;
+    }
+
+    // wywoływane w transakcji usuwającej wiersze; ślad trafia do bazy razem z DELETE
+    public void recordDeleted(String entity, Collection<Long> ids) {
+        Instant now = Instant.now();
+        for (Long id : ids) {
+            entityManager.persist(new DeletedEntity(next(entity), entity, id, now));
+        }
+    }
+
+    // numer, do którego wszystkie zmiany są już zatwierdzone albo wycofane
+    public long watermark() {
+        lock.lock();
+        try {
+            return watermarkLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String etag(String entity) {
+        return "W/\"" + entity + "-" + bootId + "-" + visible.getOrDefault(entity, 0L) + "\"";
+    }
+
+    public void addListener(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    private void complete(Map<String, Long> committed, long minVersion) {
+        Map<String, Long> published = new HashMap<>();
+        long watermark;
+        lock.lock();
+        try {
+            if (minVersion != Long.MAX_VALUE) {
+                inFlight.computeIfPresent(minVersion, (k, n) -> n == 1 ? null : n - 1);
+            }
+            committed.forEach((entity, version) -> pending.merge(entity, version, Math::max));
+            watermark = watermarkLocked();
+            // wycofanie też może odsłonić zmiany zatwierdzone wcześniej przez inne transakcje
+            for (Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> entry = it.next();
+                if (entry.getValue() <= watermark) {
+                    visible.merge(entry.getKey(), entry.getValue(), Math::max);
+                    published.put(entry.getKey(), entry.getValue());
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        long version = watermark;
+        published.keySet().forEach(entity -> listeners.forEach(l -> l.accept(entity, version)));
+    }
+
+    private long watermarkLocked() {
+        return inFlight.isEmpty() ? counter : inFlight.firstKey() - 1;
+    }
+
+    // JdbcTemplate idzie na połączeniu transakcji, bez flush kontekstu Hibernate (next() woła się w trakcie flush)
+    private long nextFromSequence() {
+        return jdbcTemplate.queryForObject("select nextval('change_version_seq')", Long.class);
+    }
+
+    private long maxChangeVersion(String entity) {
+        Long max = entityManager.createQuery("select max(e.changeVersion) from " + entity + " e", Long.class)
+                .getSingleResult();
+        return max != null ? max : 0L;
+    }
+}
@@ -0,0 +1,150 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.*;
+import com.saleinventory.model.Sale;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Dane startowe dashboardu jednym zapytaniem. Źródła (produkty, najnowsze sprzedaże, historia StockX,
+ * oferty StockX, sprzedaż miesiąca) są pobierane równolegle na wątkach wirtualnych, więc
+ * odpowiedź trwa tyle co najwolniejsze źródło, a nie suma. Każde źródło ma własny limit
+ * czasu; po jego upływie dashboard wraca bez tego źródła (partial = true).
+ */
+@Service
+public class DashboardService {
+
+    private static final int PRODUCTS_LIMIT = 100;
+    private static final int SALES_LIMIT = 20;
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int LISTINGS_PAGE_SIZE = 25;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private StockXOrderHistoryService orderHistoryService;
+    @Autowired
+    private StockXListingService listingService;
+    @Autowired
+    private StockXResponseCache responseCache;
+    @Autowired
+    private StockXAnalyticsService analyticsService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dashboard.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${dashboard.stockx-timeout-ms:5000}")
+    private long stockXTimeoutMs;
+
+    private ExecutorService executor;
+
+    private record Source<T>(String name, long timeoutMs, Future<T> future, long[] durationNanos) {}
+
+    @PostConstruct
+    void init() {
+        // kontekst obserwacji zapytania idzie do wątków źródeł (metryki faz, spany)
+        executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                ContextSnapshotFactory.builder().build()::captureAll);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public DashboardDTO getDashboard(YearMonth month) {
+        long start = System.nanoTime();
+        String yearMonth = (month != null ? month : YearMonth.now()).toString();
+
+        Source<ProductSliceDTO> products = submit("products", timeoutMs,
+                () -> productService.search(null, null, null, null, PRODUCTS_LIMIT));
+        Source<List<Sale>> sales = submit("sales", timeoutMs, () -> saleService.getRecent(SALES_LIMIT));
+        Source<StockXOrderPageDTO> history = submit("history", timeoutMs,
+                () -> orderHistoryService.getOrders(null, null, null, 1, HISTORY_PAGE_SIZE, null, "asc"));
+        // ten sam klucz cache co GET /api/stockx/listings z domyślnymi parametrami
+        Source<StockXListingsResponse> listings = submit("listings", stockXTimeoutMs,
+                () -> responseCache.get("listings",
+                        Arrays.asList(1, LISTINGS_PAGE_SIZE, null, null, null, null, null, null, null, null),
+                        priority -> listingService.getListings(priority,
+                                1, LISTINGS_PAGE_SIZE, null, null, null, null, null, null, null, null)));
+        Source<List<MonthlySalesDTO>> monthlySales = submit("monthlySales", timeoutMs,
+                () -> analyticsService.getSalesForMonth(yearMonth));
+
+        Map<String, DashboardSourceDTO> statuses = new LinkedHashMap<>();
+        return new DashboardDTO(
+                await(products, start, statuses),
+                await(sales, start, statuses),
+                await(history, start, statuses),
+                await(listings, start, statuses),
+                await(monthlySales, start, statuses),
+                statuses.values().stream().anyMatch(s -> !s.status().equals("OK")),
+                statuses);
+    }
+
+    private <T> Source<T> submit(String name, long timeoutMs, Callable<T> call) {
+        long[] durationNanos = {0};
+        Future<T> future = executor.submit(() -> {
+            long taskStart = System.nanoTime();
+            try {
+                return call.call();
+            } finally {
+                durationNanos[0] = System.nanoTime() - taskStart;
+            }
+        });
+        return new Source<>(name, timeoutMs, future, durationNanos);
+    }
+
+    // limit liczony od startu zapytania, więc czekanie na kolejne źródła go nie wydłuża
+    private <T> T await(Source<T> source, long start, Map<String, DashboardSourceDTO> statuses) {
+        long remaining = start + TimeUnit.MILLISECONDS.toNanos(source.timeoutMs()) - System.nanoTime();
+        String status = "OK";
+        String error = null;
+        T value = null;
+        try {
+            value = source.future().get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // bez przerywania: przerwany wątek w trakcie JDBC/I/O może zamknąć połączenie lub plik bazy,
+            // a wolne źródło dokończy się w tle (np. uzupełni cache StockX dla kolejnego odświeżenia)
+            source.future().cancel(false);
+            status = "TIMEOUT";
+            error = "Przekroczono limit " + source.timeoutMs() + " ms";
+        } catch (ExecutionException e) {
+            status = "ERROR";
+            error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            source.future().cancel(false);
+            status = "ERROR";
+            error = "Przerwano";
+        }
+
+        long durationMs = status.equals("TIMEOUT")
+                ? source.timeoutMs()
+                : TimeUnit.NANOSECONDS.toMillis(source.durationNanos()[0]);
+        statuses.put(source.name(), new DashboardSourceDTO(status, durationMs, error));
+        Timer.builder("dashboard.source")
+                .tag("source", source.name())
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.InventoryDayDTO;
+import com.saleinventory.dto.InventoryStatusDTO;
+import com.saleinventory.dto.StockAgingBucketDTO;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wycena i struktura magazynu liczone zapytaniami GROUP BY w bazie - do Javy trafiają
+ * tylko zagregowane wiersze. Wartość to suma cen zakupu (jeden wiersz = jedna para).
+ */
+@Service
+public class InventoryAnalyticsService {
+
+    // górne granice kubełków wiekowania w dniach; ostatni kubełek jest otwarty
+    private static final int[] AGING_LIMITS = {30, 90, 180, 365};
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public InventoryStatusDTO getInventoryValue(ProductStatus status, LocalDate purchasedFrom, LocalDate purchasedTo) {
+        ProductStatus effectiveStatus = status != null ? status : ProductStatus.IN_STOCK;
+        return productRepository.sumByStatusAndPurchaseDate(effectiveStatus,
+                        purchasedFrom != null ? purchasedFrom : MIN_DATE,
+                        purchasedTo != null ? purchasedTo : MAX_DATE)
+                .orElse(new InventoryStatusDTO(effectiveStatus, 0, BigDecimal.ZERO));
+    }
+
+    public List<InventoryStatusDTO> getCountsByStatus() {
+        return productRepository.sumByStatus();
+    }
+
+    public List<StockAgingBucketDTO> getStockAging(ProductStatus status, LocalDate asOf) {
+        LocalDate referenceDate = asOf != null ? asOf : LocalDate.now();
+        long[] items = new long[AGING_LIMITS.length + 1];
+        BigDecimal[] values = new BigDecimal[AGING_LIMITS.length + 1];
+        Arrays.fill(values, BigDecimal.ZERO);
+
+        // baza grupuje po dniu zakupu (najwyżej kilka tysięcy wierszy), tu tylko rozkładamy dni na kubełki
+        for (InventoryDayDTO day : productRepository.sumByPurchaseDate(status != null ? status : ProductStatus.IN_STOCK, referenceDate)) {
+            int bucket = bucketOf(ChronoUnit.DAYS.between(day.purchaseDate(), referenceDate));
+            items[bucket] += day.items();
+            values[bucket] = values[bucket].add(day.value());
+        }
+
+        List<StockAgingBucketDTO> buckets = new ArrayList<>(items.length);
+        int minDays = 0;
+        for (int i = 0; i < items.length; i++) {
+            Integer maxDays = i < AGING_LIMITS.length ? AGING_LIMITS[i] : null;
+            String label = maxDays != null ? minDays + "-" + maxDays : minDays + "+";
+            buckets.add(new StockAgingBucketDTO(label, minDays, maxDays, items[i], values[i]));
+            if (maxDays != null) minDays = maxDays + 1;
+        }
+        return buckets;
+    }
+
+    private static int bucketOf(long ageDays) {
+        for (int i = 0; i < AGING_LIMITS.length; i++) {
+            if (ageDays <= AGING_LIMITS[i]) return i;
+        }
+        return AGING_LIMITS.length;
+    }
+}
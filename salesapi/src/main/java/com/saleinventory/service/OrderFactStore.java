@@ -0,0 +1,325 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.OrderFactsGroupDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Kolumnowa kopia faktów zamówień StockX w tablicach prymitywów: dzień (epoch day), miesiąc,
+ * wypłata w groszach oraz identyfikatory produktu i wariantu ze słownika.
+ * Dane leżą w segmentach stałej wielkości z zakresem dni, więc zapytanie pomija segmenty
+ * spoza zakresu, a duże skany idą równolegle po segmentach. Skan nie alokuje nic per zamówienie.
+ */
+public class OrderFactStore {
+
+    public enum GroupBy { DAY, WEEK, MONTH, PRODUCT, VARIANT }
+
+    private static final class Segment {
+        final int[] day;
+        final int[] month;
+        final long[] payout;
+        final int[] product;
+        final int[] variant;
+        int size;
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+
+        Segment(int capacity) {
+            day = new int[capacity];
+            month = new int[capacity];
+            payout = new long[capacity];
+            product = new int[capacity];
+            variant = new int[capacity];
+        }
+    }
+
+    private final ZoneId zone;
+    private final int segmentSize;
+    private final int parallelThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Segment> segments = new ArrayList<>();
+    // numer zamówienia -> pozycja (segment * segmentSize + wiersz); aktualizacje nadpisują wiersz
+    private final Map<String, Integer> rowByOrder = new HashMap<>();
+    private final Map<String, Integer> productIds = new HashMap<>();
+    private final List<String> productNames = new ArrayList<>();
+    private final Map<String, Integer> variantIds = new HashMap<>();
+    private final List<String> variantNames = new ArrayList<>();
+    private int rows;
+
+    public OrderFactStore(ZoneId zone, int segmentSize, int parallelThreshold) {
+        this.zone = zone;
+        this.segmentSize = segmentSize;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            segments.clear();
+            rowByOrder.clear();
+            productIds.clear();
+            productNames.clear();
+            variantIds.clear();
+            variantNames.clear();
+            rows = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Zamówienia bez daty albo wypłaty są pomijane, tak jak w agregatach SalesRollupService. */
+    public void upsert(String orderNumber, Instant createdAt, BigDecimal totalPayout,
+                       String productId, String productName, String variantId, String variantName) {
+        if (orderNumber == null || createdAt == null || totalPayout == null) return;
+
+        LocalDate date = createdAt.atZone(zone).toLocalDate();
+        int day = (int) date.toEpochDay();
+        int month = date.getYear() * 12 + date.getMonthValue() - 1;
+        long minor = totalPayout.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+        lock.writeLock().lock();
+        try {
+            int product = dictionaryId(productIds, productNames, productId, productName);
+            int variant = dictionaryId(variantIds, variantNames, variantId,
+                    productName != null && variantName != null ? productName + " " + variantName : variantName);
+
+            Integer position = rowByOrder.get(orderNumber);
+            Segment segment;
+            int row;
+            if (position != null) {
+                segment = segments.get(position / segmentSize);
+                row = position % segmentSize;
+            } else {
+                segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                if (segment == null || segment.size == segmentSize) {
+                    segment = new Segment(segmentSize);
+                    segments.add(segment);
+                }
+                row = segment.size++;
+                rowByOrder.put(orderNumber, (segments.size() - 1) * segmentSize + row);
+                rows++;
+            }
+            segment.day[row] = day;
+            segment.month[row] = month;
+            segment.payout[row] = minor;
+            segment.product[row] = product;
+            segment.variant[row] = variant;
+            segment.minDay = Math.min(segment.minDay, day);
+            segment.maxDay = Math.max(segment.maxDay, day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Liczba zamówień i suma wypłat w zakresie dni [from, to] (null = bez ograniczenia), przyciętym
+     * do pierwszego i ostatniego dnia z zamówieniami. Grupy czasowe są rosnąco i obejmują też puste
+     * okresy wewnątrz zakresu, produkty i warianty malejąco po wypłatach.
+     */
+    public List<OrderFactsGroupDTO> aggregate(LocalDate from, LocalDate to, GroupBy groupBy) {
+        lock.readLock().lock();
+        try {
+            if (rows == 0) return List.of();
+
+            // zakres przycięty do dni z danymi: liczba grup (i tablice per segment) zależy od danych, nie od zapytania
+            int minDay = minDay();
+            int maxDay = maxDay();
+            int fromDay = from != null ? (int) Math.max(from.toEpochDay(), minDay) : minDay;
+            int toDay = to != null ? (int) Math.min(to.toEpochDay(), maxDay) : maxDay;
+            if (fromDay > toDay) return List.of();
+
+            // tygodnie składamy z sum dziennych, więc skan zna tylko gotowe kolumny kluczy
+            GroupBy scanBy = groupBy == GroupBy.WEEK ? GroupBy.DAY : groupBy;
+            int base = switch (scanBy) {
+                case DAY, WEEK -> fromDay;
+                case MONTH -> monthOf(fromDay);
+                case PRODUCT, VARIANT -> 0;
+            };
+            int groups = switch (scanBy) {
+                case DAY, WEEK -> toDay - fromDay + 1;
+                case MONTH -> monthOf(toDay) - base + 1;
+                case PRODUCT -> productNames.size();
+                case VARIANT -> variantNames.size();
+            };
+
+            long[][] totals;
+            if (rows >= parallelThreshold && segments.size() > 1) {
+                // wątek wołający trzyma blokadę odczytu przez cały skan, więc segmenty się nie zmienią
+                totals = IntStream.range(0, segments.size()).parallel()
+                        .mapToObj(s -> scan(segments.get(s), fromDay, toDay, scanBy, base, groups))
+                        .reduce(OrderFactStore::merge)
+                        .orElseGet(() -> new long[2][groups]);
+            } else {
+                totals = new long[2][groups];
+                for (Segment segment : segments) {
+                    scanInto(segment, fromDay, toDay, scanBy, base, totals[0], totals[1]);
+                }
+            }
+            if (groupBy == GroupBy.WEEK) {
+                return toGroups(groupBy, weekStart(fromDay), foldWeeks(fromDay, totals));
+            }
+            return toGroups(groupBy, base, totals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long[][] scan(Segment segment, int fromDay, int toDay, GroupBy scanBy, int base, int groups) {
+        long[][] totals = new long[2][groups];
+        scanInto(segment, fromDay, toDay, scanBy, base, totals[0], totals[1]);
+        return totals;
+    }
+
+    private static void scanInto(Segment segment, int fromDay, int toDay, GroupBy scanBy, int base,
+                                 long[] counts, long[] sums) {
+        if (segment.maxDay < fromDay || segment.minDay > toDay) return;
+
+        int[] keys = switch (scanBy) {
+            case DAY, WEEK -> segment.day;
+            case MONTH -> segment.month;
+            case PRODUCT -> segment.product;
+            case VARIANT -> segment.variant;
+        };
+        int[] day = segment.day;
+        long[] payout = segment.payout;
+        int size = segment.size;
+        boolean whole = segment.minDay >= fromDay && segment.maxDay <= toDay;
+        if (whole && (scanBy == GroupBy.DAY || scanBy == GroupBy.MONTH)) {
+            // kolejne wiersze tego samego dnia/miesiąca sumujemy w zmiennych lokalnych, a do tablicy
+            // zapisujemy przy zmianie klucza. Kolejność wierszy nie jest gwarantowana (wczytanie startowe
+            // idzie po orderNumber), więc wynik jest poprawny przy dowolnej kolejności, tylko serie są krótsze
+            int run = keys[0];
+            long count = 0;
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                int key = keys[i];
+                if (key != run) {
+                    counts[run - base] += count;
+                    sums[run - base] += sum;
+                    run = key;
+                    count = 0;
+                    sum = 0;
+                }
+                count++;
+                sum += payout[i];
+            }
+            counts[run - base] += count;
+            sums[run - base] += sum;
+        } else if (whole) {
+            // cały segment w zakresie - bez sprawdzania daty w pętli
+            for (int i = 0; i < size; i++) {
+                int group = keys[i] - base;
+                counts[group]++;
+                sums[group] += payout[i];
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                int d = day[i];
+                if (d < fromDay || d > toDay) continue;
+                int group = keys[i] - base;
+                counts[group]++;
+                sums[group] += payout[i];
+            }
+        }
+    }
+
+    private static long[][] foldWeeks(int fromDay, long[][] daily) {
+        int firstWeek = weekStart(fromDay);
+        int lastDay = fromDay + daily[0].length - 1;
+        long[][] weekly = new long[2][(weekStart(lastDay) - firstWeek) / 7 + 1];
+        for (int d = 0; d < daily[0].length; d++) {
+            int week = (fromDay + d - firstWeek) / 7;
+            weekly[0][week] += daily[0][d];
+            weekly[1][week] += daily[1][d];
+        }
+        return weekly;
+    }
+
+    private static long[][] merge(long[][] a, long[][] b) {
+        for (int g = 0; g < a[0].length; g++) {
+            a[0][g] += b[0][g];
+            a[1][g] += b[1][g];
+        }
+        return a;
+    }
+
+    private List<OrderFactsGroupDTO> toGroups(GroupBy groupBy, int base, long[][] totals) {
+        long[] counts = totals[0];
+        long[] sums = totals[1];
+        List<OrderFactsGroupDTO> result = new ArrayList<>(counts.length);
+        boolean byTime = groupBy == GroupBy.DAY || groupBy == GroupBy.WEEK || groupBy == GroupBy.MONTH;
+        for (int g = 0; g < counts.length; g++) {
+            if (!byTime && counts[g] == 0) continue;
+            result.add(new OrderFactsGroupDTO(label(groupBy, base, g), counts[g], BigDecimal.valueOf(sums[g], 2)));
+        }
+        if (!byTime) {
+            result.sort(Comparator.comparing(OrderFactsGroupDTO::payout).reversed());
+        }
+        return result;
+    }
+
+    private String label(GroupBy groupBy, int base, int group) {
+        return switch (groupBy) {
+            case DAY -> LocalDate.ofEpochDay(base + group).toString();
+            case WEEK -> {
+                LocalDate monday = LocalDate.ofEpochDay(base + group * 7L);
+                yield String.format("%d-W%02d",
+                        monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MONTH -> YearMonth.of((base + group) / 12, (base + group) % 12 + 1).toString();
+            case PRODUCT -> Objects.requireNonNullElse(productNames.get(group), "nieznany");
+            case VARIANT -> Objects.requireNonNullElse(variantNames.get(group), "nieznany");
+        };
+    }
+
+    private static int dictionaryId(Map<String, Integer> ids, List<String> names, String key, String name) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    private int minDay() {
+        int min = Integer.MAX_VALUE;
+        for (Segment segment : segments) min = Math.min(min, segment.minDay);
+        return min;
+    }
+
+    private int maxDay() {
+        int max = Integer.MIN_VALUE;
+        for (Segment segment : segments) max = Math.max(max, segment.maxDay);
+        return max;
+    }
+
+    // 1970-01-01 to czwartek, więc poniedziałek tygodnia to epochDay - floorMod(epochDay + 3, 7)
+    private static int weekStart(int epochDay) {
+        return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,213 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.ProductBatchItemDTO;
+import com.saleinventory.dto.ProductBatchResponseDTO;
+import com.saleinventory.dto.ProductBatchResultDTO;
+import com.saleinventory.dto.ProductBatchResultDTO.Status;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Paczka operacji na produktach (create/update/delete) w jednej transakcji.
+ * Produkty z paczki czytane są jednym zapytaniem IN na porcję, a zmiany wychodzą przy flush
+ * jako batch JDBC. Update i delete porównują version z klienta z wersją w bazie.
+ */
+@Service
+public class ProductBatchService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${products.batch.max-items:10000}")
+    private int maxItems;
+
+    @Value("${products.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Bez atomic błędne pozycje są pomijane, a reszta zapisywana. Z atomic pierwszy błąd
+     * wycofuje całą paczkę i pozostałe pozycje dostają SKIPPED.
+     */
+    public ProductBatchResponseDTO apply(List<ProductBatchItemDTO> items, boolean atomic) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Pusta paczka operacji");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Za dużo operacji w paczce: " + items.size() + " (maks. " + maxItems + ")");
+        }
+        long start = System.currentTimeMillis();
+
+        ProductBatchResultDTO[] results = new ProductBatchResultDTO[items.size()];
+        String[] ops = new String[items.size()];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            results[i] = validate(i, items.get(i), seen, ops);
+        }
+
+        if (!(atomic && hasFailures(results))) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    for (int from = 0; from < items.size(); from += chunkSize) {
+                        if (!applyChunk(items, ops, results, from, Math.min(from + chunkSize, items.size()), atomic)) {
+                            tx.setRollbackOnly();
+                            return;
+                        }
+                    }
+                });
+            } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
+                // ktoś zmienił produkt między odczytem a zapisem paczki - nic nie zostało zapisane
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = result(i, ops[i], Status.CONFLICT, items.get(i).id(), null,
+                            "Równoczesna zmiana produktu - paczka wycofana, ponów operację");
+                }
+            }
+        }
+        if (atomic && hasFailures(results)) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null || results[i].status() == Status.OK) {
+                    results[i] = result(i, ops[i], Status.SKIPPED, items.get(i).id(), null, "Paczka wycofana");
+                }
+            }
+        }
+
+        int applied = 0;
+        for (ProductBatchResultDTO r : results) {
+            if (r.status() == Status.OK) applied++;
+        }
+        return new ProductBatchResponseDTO(applied, results.length - applied,
+                System.currentTimeMillis() - start, Arrays.asList(results));
+    }
+
+    // false: w trybie atomic pozycja się nie powiodła i transakcję trzeba wycofać
+    private boolean applyChunk(List<ProductBatchItemDTO> items, String[] ops, ProductBatchResultDTO[] results,
+                               int from, int to, boolean atomic) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (results[i] == null && !ops[i].equals("create")) ids.add(items.get(i).id());
+        }
+        Map<Long, Product> existing = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            existing.put(product.getId(), product);
+        }
+
+        Product[] written = new Product[to - from];
+        List<Long> deleted = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (results[i] != null) continue;
+            ProductBatchItemDTO item = items.get(i);
+
+            if (ops[i].equals("create")) {
+                Product product = new Product();
+                apply(product, item);
+                entityManager.persist(product);
+                written[i - from] = product;
+                continue;
+            }
+
+            Product product = existing.get(item.id());
+            if (product == null) {
+                results[i] = result(i, ops[i], Status.NOT_FOUND, item.id(), null, "Brak produktu " + item.id());
+            } else if (!product.getVersion().equals(item.version())) {
+                results[i] = result(i, ops[i], Status.CONFLICT, item.id(), product.getVersion(),
+                        "Produkt zmieniony w międzyczasie (wersja " + product.getVersion() + ")");
+            } else if (ops[i].equals("update")) {
+                apply(product, item);
+                written[i - from] = product;
+            } else {
+                entityManager.remove(product);
+                deleted.add(product.getId());
+                results[i] = result(i, ops[i], Status.OK, item.id(), item.version(), null);
+            }
+            if (atomic && results[i] != null && results[i].status() != Status.OK) {
+                return false;
+            }
+        }
+
+        changeTracker.recordDeleted(ChangeTracker.PRODUCT, deleted);
+        // po flush encje mają nadane id i podbite wersje
+        entityManager.flush();
+        for (int i = from; i < to; i++) {
+            Product product = written[i - from];
+            if (product != null) {
+                results[i] = result(i, ops[i], Status.OK, product.getId(), product.getVersion(), null);
+            }
+        }
+        entityManager.clear();
+        return true;
+    }
+
+    private static ProductBatchResultDTO validate(int index, ProductBatchItemDTO item, Set<Long> seen, String[] ops) {
+        String op = item == null || item.op() == null ? "" : item.op().trim().toLowerCase(Locale.ROOT);
+        ops[index] = op;
+        if (item == null) {
+            return result(index, op, Status.INVALID, null, null, "Pusta operacja");
+        }
+        if (!op.equals("create") && !op.equals("update") && !op.equals("delete")) {
+            return result(index, op, Status.INVALID, item.id(), null, "Nieznana operacja: '" + item.op() + "' (create, update, delete)");
+        }
+        if (op.equals("create")) {
+            if (item.id() != null) {
+                return result(index, op, Status.INVALID, item.id(), null, "create nie przyjmuje id");
+            }
+        } else {
+            if (item.id() == null || item.version() == null) {
+                return result(index, op, Status.INVALID, item.id(), null, op + " wymaga id i version");
+            }
+            if (!seen.add(item.id())) {
+                return result(index, op, Status.INVALID, item.id(), null, "Produkt " + item.id() + " powtórzony w paczce");
+            }
+        }
+        if (item.quantity() != null && item.quantity() < 0) {
+            return result(index, op, Status.INVALID, item.id(), null, "Ujemna ilość");
+        }
+        try {
+            ProductStatus.parse(item.status());
+        } catch (IllegalArgumentException e) {
+            return result(index, op, Status.INVALID, item.id(), null, e.getMessage());
+        }
+        return null;
+    }
+
+    // pola null zostają bez zmian
+    private static void apply(Product product, ProductBatchItemDTO item) {
+        if (item.sku() != null) product.setSku(item.sku());
+        if (item.size() != null) product.setSize(item.size());
+        if (item.name() != null) product.setName(item.name());
+        if (item.purchasePrice() != null) product.setPurchasePrice(item.purchasePrice());
+        if (item.status() != null) product.setStatus(ProductStatus.parse(item.status()));
+        if (item.purchaseDate() != null) product.setPurchaseDate(item.purchaseDate());
+        if (item.saleDate() != null) product.setSaleDate(item.saleDate());
+        if (item.quantity() != null) product.setQuantity(item.quantity());
+    }
+
+    private static boolean hasFailures(ProductBatchResultDTO[] results) {
+        for (ProductBatchResultDTO r : results) {
+            if (r != null && r.status() != Status.OK) return true;
+        }
+        return false;
+    }
+
+    private static ProductBatchResultDTO result(int index, String op, Status status, Long id, Long version, String message) {
+        return new ProductBatchResultDTO(index, op, status, id, version, message);
+    }
+}
@@ -0,0 +1,247 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.CsvRowErrorDTO;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Parser plików CSV z magazynem (sku;size;price;status;purchaseDate[;saleDate]); każdy wiersz to jedna sztuka.
+ * Plik jest mapowany do pamięci, dzielony na segmenty na granicach linii i parsowany
+ * równolegle; pola są czytane bezpośrednio z bufora, bez split() i pośrednich String[].
+ * Segmenty trafiają do odbiorcy w kolejności z pliku, błędne wiersze z numerem linii.
+ */
+@Component
+public class ProductCsvParser implements MeterBinder {
+
+    private static final byte SEPARATOR = ';';
+    private static final int MIN_FIELDS = 5;
+    private static final int MAX_FIELDS = 6;
+
+    public record Chunk(List<Product> products, List<CsvRowErrorDTO> errors, long bytes) {}
+
+    private record Segment(List<Product> products, List<CsvRowErrorDTO> localErrors, int lines, long bytes) {}
+
+    @Value("${products.import.segment-bytes:8388608}")
+    private int segmentBytes;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "products.import.parser", List.of()).bindTo(registry);
+    }
+
+    public void parse(Path file, Consumer<Chunk> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = nextLineStart(channel, 0, size); // pomiń nagłówek
+
+            // ograniczamy liczbę segmentów w locie, żeby pamięć nie rosła z rozmiarem pliku
+            int maxInFlight = pool.getParallelism() * 2;
+            Deque<Future<Segment>> inFlight = new ArrayDeque<>();
+            long lineBase = 1;
+            while (start < size) {
+                long end = start + segmentBytes >= size ? size : nextLineStart(channel, start + segmentBytes, size);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                inFlight.add(pool.submit(() -> parseSegment(buffer)));
+                start = end;
+
+                if (inFlight.size() >= maxInFlight) {
+                    lineBase = deliver(inFlight.poll(), lineBase, sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                lineBase = deliver(inFlight.poll(), lineBase, sink);
+            }
+        }
+    }
+
+    private static long deliver(Future<Segment> future, long lineBase, Consumer<Chunk> sink) throws IOException {
+        Segment segment;
+        try {
+            segment = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsowanie CSV przerwane", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Błąd parsowania CSV: " + e.getCause().getMessage(), e.getCause());
+        }
+        List<CsvRowErrorDTO> errors = new ArrayList<>(segment.localErrors().size());
+        for (CsvRowErrorDTO error : segment.localErrors()) {
+            errors.add(new CsvRowErrorDTO(lineBase + error.line(), error.message()));
+        }
+        sink.accept(new Chunk(segment.products(), errors, segment.bytes()));
+        return lineBase + segment.lines();
+    }
+
+    // pozycja pierwszego bajtu po najbliższym '\n' od 'from' (albo koniec pliku)
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Segment parseSegment(ByteBuffer buffer) {
+        List<Product> products = new ArrayList<>();
+        List<CsvRowErrorDTO> errors = new ArrayList<>();
+        int[] fieldStart = new int[MAX_FIELDS];
+        int[] fieldEnd = new int[MAX_FIELDS];
+        byte[] scratch = new byte[256];
+
+        int limit = buffer.limit();
+        int position = 0;
+        int line = 0;
+        while (position < limit) {
+            int eol = position;
+            while (eol < limit && buffer.get(eol) != '\n') eol++;
+            int end = eol > position && buffer.get(eol - 1) == '\r' ? eol - 1 : eol;
+            line++;
+
+            if (end > position) {
+                int fields = 0;
+                int fieldFrom = position;
+                for (int i = position; i <= end && fields < MAX_FIELDS; i++) {
+                    if (i == end || buffer.get(i) == SEPARATOR) {
+                        fieldStart[fields] = fieldFrom;
+                        fieldEnd[fields] = i;
+                        fields++;
+                        fieldFrom = i + 1;
+                    }
+                }
+
+                if (fields < MIN_FIELDS) {
+                    errors.add(new CsvRowErrorDTO(line, "Oczekiwano co najmniej " + MIN_FIELDS + " kolumn, jest " + fields));
+                } else {
+                    try {
+                        Product product = new Product();
+                        product.setSku(string(buffer, fieldStart[0], fieldEnd[0], scratch));
+                        product.setSize(string(buffer, fieldStart[1], fieldEnd[1], scratch));
+                        product.setPurchasePrice(decimal(buffer, fieldStart[2], fieldEnd[2]));
+                        product.setStatus(ProductStatus.parse(string(buffer, fieldStart[3], fieldEnd[3], scratch)));
+                        product.setPurchaseDate(date(buffer, fieldStart[4], fieldEnd[4]));
+                        product.setSaleDate(fields > 5 ? date(buffer, fieldStart[5], fieldEnd[5]) : null);
+                        product.setQuantity(1);
+                        products.add(product);
+                    } catch (IllegalArgumentException e) {
+                        errors.add(new CsvRowErrorDTO(line, e.getMessage()));
+                    }
+                }
+            }
+            position = eol + 1;
+        }
+        return new Segment(products, errors, line, limit);
+    }
+
+    private static String string(ByteBuffer buffer, int from, int to, byte[] scratch) {
+        int length = to - from;
+        byte[] target = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(from, target, 0, length);
+        return new String(target, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // cena w formacie 123,45 albo 123.45; cyfry składane w long, bez pośredniego Stringa
+    static BigDecimal decimal(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') from++;
+        while (to > from && buffer.get(to - 1) == ' ') to--;
+        if (from == to) throw new NumberFormatException("Brak ceny zakupu");
+
+        boolean negative = false;
+        byte first = buffer.get(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (++digits > 18) throw new NumberFormatException("Zbyt wiele cyfr w cenie zakupu");
+                unscaled = unscaled * 10 + (b - '0');
+                if (scale >= 0) scale++;
+            } else if ((b == ',' || b == '.') && scale < 0) {
+                scale = 0;
+            } else {
+                throw new NumberFormatException("Niepoprawna cena zakupu: '" + asciiPreview(buffer, from, to) + "'");
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("Niepoprawna cena zakupu: '" + asciiPreview(buffer, from, to) + "'");
+
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    // data w formacie yyyy-MM-dd; puste pole to brak daty
+    static LocalDate date(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') from++;
+        while (to > from && buffer.get(to - 1) == ' ') to--;
+        if (from == to) return null;
+
+        if (to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') {
+            throw new IllegalArgumentException("Niepoprawna data (oczekiwano yyyy-MM-dd): '" + asciiPreview(buffer, from, to) + "'");
+        }
+        try {
+            return LocalDate.of(digits(buffer, from, from + 4), digits(buffer, from + 5, from + 7), digits(buffer, from + 8, to));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Niepoprawna data: '" + asciiPreview(buffer, from, to) + "'");
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("Niepoprawna data: '" + asciiPreview(buffer, from, to) + "'");
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static String asciiPreview(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[Math.min(to - from, 32)];
+        buffer.get(from, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
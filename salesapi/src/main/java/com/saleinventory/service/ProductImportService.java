@@ -1,47 +1,235 @@
 package com.saleinventory.service;
 
+import com.saleinventory.dto.CsvRowErrorDTO;
+import com.saleinventory.dto.ImportJobDTO;
 import com.saleinventory.model.Product;
 import com.saleinventory.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 @Service
 public class ProductImportService {
 
+    private static final Logger LOGGER = Logger.getLogger(ProductImportService.class.getName());
+    private static final int MAX_REPORTED_ERRORS = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
-    public void importCSV(MultipartFile file) throws Exception {
-        List<Product> products = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            boolean skip = true;
-            while ((line = reader.readLine()) != null) {
-                if (skip) { skip = false; continue; } // pomiń nagłówek
-
-                String[] data = line.split(";");
-                Product product = new Product();
-                product.setSku(data[0]);
-                product.setSize(data[1]);
+    @Autowired
+    private ProductCsvParser csvParser;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${products.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${products.import.finished-job-ttl:1h}")
+    private Duration finishedJobTtl;
+
+    // przepustowość w Prometheusie: rate(products_import_rows_total[1m]) po tagu result
+    private Counter rowsImported;
+    private Counter rowsRejected;
+    private Counter bytesRead;
+    private DistributionSummary jobThroughput;
+
+    // trwające zadania zostają do końca importu, zakończone znikają po finished-job-ttl
+    private Cache<String, ImportJob> jobs;
+    private final ExecutorService importExecutor = Executors.newFixedThreadPool(1, r -> {
+        Thread thread = new Thread(r, "csv-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void initMetrics() {
+        jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, ImportJob>() {
+                    @Override
+                    public long expireAfterCreate(String id, ImportJob job, long currentTime) {
+                        return Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, ImportJob job, long currentTime, long currentDuration) {
+                        return finishedJobTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, ImportJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        rowsImported = Counter.builder("products.import.rows").tag("result", "imported").register(meterRegistry);
+        rowsRejected = Counter.builder("products.import.rows").tag("result", "rejected").register(meterRegistry);
+        bytesRead = Counter.builder("products.import.bytes").baseUnit("bytes").register(meterRegistry);
+        jobThroughput = DistributionSummary.builder("products.import.throughput")
+                .baseUnit("rows/s")
+                .description("Zapisane wiersze na sekundę dla zakończonych importów")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(importExecutor, "products.import", List.of()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    public ImportJobDTO importCSV(MultipartFile file) throws Exception {
+        Path spooled = spool(file);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), Files.size(spooled));
+        try {
+            importFile(spooled, job);
+            job.state = "COMPLETED";
+        } finally {
+            job.finishedAt = Instant.now();
+            Files.deleteIfExists(spooled);
+        }
+        return job.toDto();
+    }
+
+    // plik trafia na dysk przed zwróceniem odpowiedzi, bo MultipartFile znika po zakończeniu requestu
+    public String startImport(MultipartFile file) throws Exception {
+        Path spooled = spool(file);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), Files.size(spooled));
+        jobs.put(job.id, job);
+        importExecutor.submit(() -> {
+            job.state = "RUNNING";
+            try {
+                importFile(spooled, job);
+                job.state = "COMPLETED";
+            } catch (Exception e) {
+                LOGGER.warning("Import CSV " + job.id + " nie powiódł się: " + e.getMessage());
+                job.error = e.getMessage();
+                job.state = "FAILED";
+            } finally {
+                job.finishedAt = Instant.now();
+                // ponowny zapis zaczyna odliczanie TTL zakończonego zadania
+                jobs.put(job.id, job);
                 try {
-                    product.setPurchasePrice(Double.parseDouble(data[2].replace(",", ".").trim()));
-                } catch (Exception e) {
-                    product.setPurchasePrice(0.0);
+                    Files.deleteIfExists(spooled);
+                } catch (Exception ignored) {
                 }
-                product.setStatus(data[3]);
-                product.setPurchaseDate(data[4]);
-                product.setSaleDate(data.length > 5 ? data[5] : "");
-                products.add(product);
             }
-            productRepository.saveAll(products);
+        });
+        return job.id;
+    }
+
+    public ImportJobDTO getJob(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new NoSuchElementException("Nie znaleziono zadania importu " + jobId);
+        }
+        return job.toDto();
+    }
+
+    private void importFile(Path file, ImportJob job) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            // parser oddaje segmenty w kolejności z pliku, zapis idzie paczkami po chunkSize wierszy
+            csvParser.parse(file, chunk -> {
+                List<Product> products = chunk.products();
+                for (int from = 0; from < products.size(); from += chunkSize) {
+                    saveChunk(products.subList(from, Math.min(from + chunkSize, products.size())), job);
+                }
+                job.reject(chunk.errors());
+                rowsRejected.increment(chunk.errors().size());
+                job.bytesRead.addAndGet(chunk.bytes());
+                bytesRead.increment(chunk.bytes());
+            });
+            outcome = "success";
+        } finally {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            Timer.builder("products.import").tag("outcome", outcome).register(meterRegistry).record(elapsed);
+            if (outcome.equals("success") && !elapsed.isZero()) {
+                jobThroughput.record(job.rowsImported.get() / (elapsed.toNanos() / 1e9));
+            }
+        }
+    }
+
+    private static Path spool(MultipartFile file) throws Exception {
+        Path spooled = Files.createTempFile("product-import-", ".csv");
+        file.transferTo(spooled);
+        return spooled;
+    }
+
+    // każda paczka we własnej transakcji; po flush czyścimy kontekst, żeby nie trzymać encji w pamięci
+    private void saveChunk(List<Product> chunk, ImportJob job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        job.rowsImported.addAndGet(chunk.size());
+        rowsImported.increment(chunk.size());
+    }
+
+    private static class ImportJob {
+        final String id;
+        final long bytesTotal;
+        final Instant startedAt = Instant.now();
+        final AtomicLong rowsImported = new AtomicLong();
+        final AtomicLong rowsRejected = new AtomicLong();
+        final List<CsvRowErrorDTO> rejectedRows = new CopyOnWriteArrayList<>();
+        final AtomicLong bytesRead = new AtomicLong();
+        volatile String state = "QUEUED";
+        volatile Instant finishedAt;
+        volatile String error;
+
+        ImportJob(String id, long bytesTotal) {
+            this.id = id;
+            this.bytesTotal = bytesTotal;
+        }
+
+        void reject(List<CsvRowErrorDTO> errors) {
+            rowsRejected.addAndGet(errors.size());
+            for (CsvRowErrorDTO error : errors) {
+                if (rejectedRows.size() >= MAX_REPORTED_ERRORS) break;
+                rejectedRows.add(error);
+            }
+        }
+
+        ImportJobDTO toDto() {
+            return new ImportJobDTO(id, state, rowsImported.get(), rowsRejected.get(), bytesRead.get(),
+                    bytesTotal, startedAt, finishedAt, error, List.copyOf(rejectedRows));
         }
     }
 }
@@ -1,32 +1,255 @@
 package com.saleinventory.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.ChangesDTO;
+import com.saleinventory.dto.ProductFilterDTO;
+import com.saleinventory.dto.ProductSliceDTO;
+import com.saleinventory.dto.ProductSummaryDTO;
 import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.DeletedEntityRepository;
 import com.saleinventory.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_LIMIT = 1000;
+    // pola, po których można sortować, i jak odtworzyć ich wartość z kursora
+    private static final Map<String, Function<String, Object>> SORT_FIELDS = Map.of(
+            "id", Long::valueOf,
+            "sku", s -> s,
+            "size", s -> s,
+            "status", ProductStatus::valueOf,
+            "purchaseDate", LocalDate::parse,
+            "saleDate", LocalDate::parse,
+            "purchasePrice", BigDecimal::new);
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private DeletedEntityRepository deletedEntityRepository;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // górna granica dla listy bez stronicowania (GET /api/products?all=true)
+    @Value("${products.list.max-rows:10000}")
+    private int maxListRows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     public List<Product> getAll() {
         return productRepository.findAll();
     }
 
+    /**
+     * Stronicowanie po kluczu (sortField, id): kolejna strona to "(sortField, id) > kursor", bez OFFSET.
+     * Wszystkie pola sortowania poza id mogą być puste, więc null traktujemy jak wartość większą
+     * od każdej innej (rosnąco na końcu, malejąco na początku) i kursor zapisuje go jawnie.
+     */
+    public ProductSliceDTO search(ProductFilterDTO filter, String sortBy, String sortDir, String cursor, int limit) {
+        String sortField = sortBy != null && SORT_FIELDS.containsKey(sortBy) ? sortBy : "id";
+        boolean ascending = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.ASC).isAscending();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Map<String, Object> after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, sortField);
+
+        CriteriaQuery<Product> query = sortedQuery(filter, sortField, ascending, after);
+        // jeden wiersz więcej mówi, czy jest następna strona
+        List<Product> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+        boolean hasNext = rows.size() > pageSize;
+        List<Product> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        List<ProductSummaryDTO> items = page.stream().map(ProductService::toSummary).toList();
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1), sortField) : null;
+        return new ProductSliceDTO(items, nextCursor);
+    }
+
+    // cała przefiltrowana lista w tej samej kolejności co strony; powyżej maxListRows trzeba stronicować
+    public List<ProductSummaryDTO> list(ProductFilterDTO filter, String sortBy, String sortDir) {
+        String sortField = sortBy != null && SORT_FIELDS.containsKey(sortBy) ? sortBy : "id";
+        boolean ascending = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.ASC).isAscending();
+        List<Product> rows = entityManager.createQuery(sortedQuery(filter, sortField, ascending, null))
+                .setMaxResults(maxListRows + 1).getResultList();
+        if (rows.size() > maxListRows) {
+            throw new IllegalArgumentException("Ponad " + maxListRows + " produktów - użyj limit i cursor");
+        }
+        return rows.stream().map(ProductService::toSummary).toList();
+    }
+
+    private CriteriaQuery<Product> sortedQuery(ProductFilterDTO filter, String sortField, boolean ascending,
+                                               Map<String, Object> after) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(toSpecification(filter).toPredicate(root, query, cb));
+        if (after != null) {
+            predicates.add(afterCursor(cb, root, sortField, ascending, after));
+        }
+        List<Order> orders = new ArrayList<>();
+        if (!sortField.equals("id")) {
+            orders.add(ascending ? cb.asc(root.get(sortField), false) : cb.desc(root.get(sortField), true));
+        }
+        orders.add(ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        return query.where(predicates.toArray(Predicate[]::new)).orderBy(orders);
+    }
+
     public Product add(Product product) {
         return productRepository.save(product);
     }
 
+    // ślad usunięcia w tej samej transakcji, żeby /changes oddał id usuniętego produktu
+    @Transactional
     public void delete(Long id) {
-        productRepository.deleteById(id);
+        productRepository.findById(id).ifPresent(product -> {
+            productRepository.delete(product);
+            changeTracker.recordDeleted(ChangeTracker.PRODUCT, List.of(id));
+        });
+    }
+
+    /**
+     * Produkty zmienione po numerze since i id usuniętych, najwyżej limit zmian. Zwracany numer
+     * klient podaje jako since w kolejnym zapytaniu; hasMore oznacza, że zostały dalsze zmiany.
+     */
+    public ChangesDTO<ProductSummaryDTO> getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since nie może być ujemne");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        long upTo = changeTracker.watermark();
+        List<Product> changed = productRepository.findChanged(since, upTo, Limit.of(pageSize + 1));
+        boolean hasMore = changed.size() > pageSize;
+        if (hasMore) {
+            changed = changed.subList(0, pageSize);
+            upTo = changed.get(pageSize - 1).getChangeVersion();
+        }
+        return new ChangesDTO<>(upTo, changed.stream().map(ProductService::toSummary).toList(),
+                deletedEntityRepository.findDeletedIds(ChangeTracker.PRODUCT, since, upTo), hasMore);
     }
 
     public Product updateQuantity(Long id, int newQty) {
         Product product = productRepository.findById(id).orElseThrow();
+        product.setQuantity(newQty);
         return productRepository.save(product);
     }
+
+    private static Specification<Product> toSpecification(ProductFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter == null) return cb.and();
+            // prefiks SKU, żeby zapytanie mogło użyć indeksu (sku, size)
+            if (notBlank(filter.sku())) predicates.add(cb.like(root.get("sku"), filter.sku() + "%"));
+            if (notBlank(filter.size())) predicates.add(cb.equal(root.get("size"), filter.size()));
+            if (filter.status() != null) predicates.add(cb.equal(root.get("status"), filter.status()));
+            if (filter.purchasedFrom() != null) predicates.add(cb.greaterThanOrEqualTo(root.get("purchaseDate"), filter.purchasedFrom()));
+            if (filter.purchasedTo() != null) predicates.add(cb.lessThanOrEqualTo(root.get("purchaseDate"), filter.purchasedTo()));
+            if (filter.soldFrom() != null) predicates.add(cb.greaterThanOrEqualTo(root.get("saleDate"), filter.soldFrom()));
+            if (filter.soldTo() != null) predicates.add(cb.lessThanOrEqualTo(root.get("saleDate"), filter.soldTo()));
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // wiersze "za" kursorem w kolejności sortowania; null sortuje się jak największa wartość
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate afterCursor(CriteriaBuilder cb, Root<Product> root, String sortField, boolean ascending,
+                                         Map<String, Object> after) {
+        Long lastId = (Long) after.get("id");
+        Expression<Long> id = root.get("id");
+        Predicate idAfter = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if (sortField.equals("id")) {
+            return idAfter;
+        }
+        Expression<Comparable> field = root.get(sortField);
+        Comparable value = (Comparable) after.get(sortField);
+        if (value == null) {
+            // rosnąco puste są na końcu - dalej już tylko puste; malejąco po pustych idą wszystkie niepuste
+            return ascending
+                    ? cb.and(cb.isNull(field), idAfter)
+                    : cb.or(cb.and(cb.isNull(field), idAfter), cb.isNotNull(field));
+        }
+        Predicate sameValue = cb.and(cb.equal(field, value), idAfter);
+        return ascending
+                ? cb.or(cb.greaterThan(field, value), sameValue, cb.isNull(field))
+                : cb.or(cb.lessThan(field, value), sameValue);
+    }
+
+    private String encodeCursor(Product last, String sortField) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (!sortField.equals("id")) {
+            Object value = switch (sortField) {
+                case "sku" -> last.getSku();
+                case "size" -> last.getSize();
+                case "status" -> last.getStatus();
+                case "purchaseDate" -> last.getPurchaseDate();
+                case "saleDate" -> last.getSaleDate();
+                case "purchasePrice" -> last.getPurchasePrice();
+                default -> throw new IllegalStateException(sortField);
+            };
+            keys.put(sortField, value != null ? value.toString() : null);
+        }
+        keys.put("id", last.getId().toString());
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (Exception e) {
+            throw new IllegalStateException("Nie udało się zakodować kursora", e);
+        }
+    }
+
+    private Map<String, Object> decodeCursor(String cursor, String sortField) {
+        Map<String, String> keys;
+        try {
+            keys = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Niepoprawny kursor");
+        }
+        // klucz pola musi być obecny; wartość null oznacza, że ostatni wiersz miał puste pole
+        if (keys.get("id") == null || (!sortField.equals("id") && !keys.containsKey(sortField))) {
+            throw new IllegalArgumentException("Kursor nie pasuje do sortowania " + sortField);
+        }
+
+        Map<String, Object> typed = new HashMap<>();
+        try {
+            typed.put("id", Long.valueOf(keys.get("id")));
+            if (!sortField.equals("id")) {
+                String value = keys.get(sortField);
+                typed.put(sortField, value != null ? SORT_FIELDS.get(sortField).apply(value) : null);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Niepoprawny kursor");
+        }
+        return typed;
+    }
+
+    private static ProductSummaryDTO toSummary(Product p) {
+        return new ProductSummaryDTO(p.getId(), p.getSku(), p.getSize(), p.getName(), p.getPurchasePrice(),
+                p.getStatus(), p.getPurchaseDate(), p.getSaleDate(), p.getQuantity(), p.getVersion());
+    }
+
+    private static boolean notBlank(String value) {
+        return value != null && !value.isBlank();
+    }
 }
@@ -0,0 +1,208 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.InventoryUnitDTO;
+import com.saleinventory.dto.MonthlyProfitDTO;
+import com.saleinventory.dto.ProfitReconcileResultDTO;
+import com.saleinventory.dto.StockXOrderSaleDTO;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.model.StockXOrderMatch;
+import com.saleinventory.repository.ProductRepository;
+import com.saleinventory.repository.StockXOrderMatchRepository;
+import com.saleinventory.repository.StockXOrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Zysk ze sprzedaży StockX (wypłata - cena zakupu). Niesprzedany towar trafia raz do indeksu
+ * w pamięci po (sku, size), a zamówienia są dopasowywane w jednym przebiegu do najstarszej sztuki (FIFO).
+ * W transakcji zapisu stan dopasowanych produktów jest czytany ponownie i produkt dostaje najwyżej tyle
+ * dopasowań, ile ma teraz sztuk; nadmiarowe zamówienia zostają niedopasowane do kolejnego rozliczenia.
+ */
+@Service
+public class ProfitService {
+
+    private static final Logger LOGGER = Logger.getLogger(ProfitService.class.getName());
+
+    private record SkuSize(String sku, String size) {
+
+        // "US 10" i "10,5" z CSV mają trafić w "10" i "10.5" z variantValue StockX
+        static SkuSize of(String sku, String size) {
+            String normalizedSize = size == null ? "" : size.trim().toUpperCase(Locale.ROOT).replace(',', '.');
+            if (normalizedSize.startsWith("US")) {
+                normalizedSize = normalizedSize.substring(2).trim();
+            }
+            return new SkuSize(sku.trim().toUpperCase(Locale.ROOT), normalizedSize);
+        }
+    }
+
+    private static final class Unit {
+        final InventoryUnitDTO product;
+        int remaining;
+        // dopasowania z tego przebiegu, w kolejności zamówień; zapisane zostaje najwyżej tyle, ile sztuk ma produkt
+        final List<StockXOrderMatch> matches = new ArrayList<>();
+        int kept;
+
+        Unit(InventoryUnitDTO product) {
+            this.product = product;
+            this.remaining = Math.max(product.quantity(), 1);
+        }
+    }
+
+    private static final class MonthTotals {
+        int orders;
+        BigDecimal payout = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+        int withoutCost;
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockXOrderRepository orderRepository;
+
+    @Autowired
+    private StockXOrderMatchRepository matchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // zamówienia w tych statusach nie są sprzedażą i nie zdejmują towaru ze stanu
+    @Value("${profit.excluded-statuses:CANCELED,CCAUTHORIZATIONFAILED,DIDNOTPASSAUTHENTICATION,AUTHFAILED,RETURNED}")
+    private List<String> excludedStatuses;
+
+    @Value("${profit.chunk-size:1000}")
+    private int chunkSize;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // jedno rozliczenie naraz, inaczej dwa przebiegi mogłyby sprzedać tę samą sztukę
+    public ProfitReconcileResultDTO reconcile() {
+        reconcileLock.lock();
+        try {
+            return reconcileLocked();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private ProfitReconcileResultDTO reconcileLocked() {
+        long start = System.currentTimeMillis();
+
+        Map<SkuSize, ArrayDeque<Unit>> index = new HashMap<>();
+        for (InventoryUnitDTO product : productRepository.findUnsoldUnits()) {
+            index.computeIfAbsent(SkuSize.of(product.sku(), product.size()), k -> new ArrayDeque<>()).add(new Unit(product));
+        }
+
+        Set<String> excluded = new HashSet<>();
+        excludedStatuses.forEach(s -> excluded.add(s.trim().toUpperCase(Locale.ROOT)));
+
+        Instant now = Instant.now();
+        Map<Long, Unit> touched = new LinkedHashMap<>();
+        int orders = 0;
+        for (StockXOrderSaleDTO order : orderRepository.findUnmatchedSales()) {
+            if (order.status() != null && excluded.contains(order.status().toUpperCase(Locale.ROOT))) continue;
+            orders++;
+
+            ArrayDeque<Unit> units = index.get(SkuSize.of(order.sku(), order.size()));
+            if (units == null || units.isEmpty()) continue;
+
+            Unit unit = units.peekFirst();
+            if (--unit.remaining == 0) {
+                units.pollFirst();
+            }
+            touched.put(unit.product.id(), unit);
+            unit.matches.add(new StockXOrderMatch(order.orderNumber(), unit.product.id(), order.createdAt(),
+                    order.totalPayout(), unit.product.purchasePrice(), now));
+        }
+
+        if (!touched.isEmpty()) {
+            List<Long> ids = new ArrayList<>(touched.keySet());
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    // produkty czytane w tej transakcji przed zapisem dopasowań: ilość mogła się zmienić od odczytu
+                    // na początku rozliczenia. Zmianę po tym odczycie wykryje @Version przy flush i całe
+                    // rozliczenie się wycofa. Usunięty produkt nie wraca z findAllById, więc nie dostaje dopasowań
+                    for (Product product : productRepository.findAllById(ids.subList(from, Math.min(from + chunkSize, ids.size())))) {
+                        Unit unit = touched.get(product.getId());
+                        int available = product.getStatus() == ProductStatus.SOLD ? 0 : Math.max(product.getQuantity(), 1);
+                        unit.kept = Math.min(unit.matches.size(), available);
+                        if (unit.kept == 0) continue;
+
+                        // persist zamiast saveAll - klucz jest nadany, więc saveAll robiłby SELECT na każdy wiersz
+                        List<StockXOrderMatch> kept = unit.matches.subList(0, unit.kept);
+                        kept.forEach(entityManager::persist);
+                        unit.remaining = available - unit.kept;
+                        if (unit.remaining == 0) {
+                            product.setStatus(ProductStatus.SOLD);
+                            product.setSaleDate(kept.get(kept.size() - 1).getSoldAt().atZone(zone).toLocalDate());
+                            product.setQuantity(0);
+                        } else {
+                            product.setQuantity(unit.remaining);
+                        }
+                    }
+                    // jedno zapytanie IN na paczkę, zmiany wychodzą przy flush jako batch INSERT/UPDATE
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            });
+        }
+
+        int matched = touched.values().stream().mapToInt(u -> u.kept).sum();
+        int productsSold = (int) touched.values().stream().filter(u -> u.kept > 0 && u.remaining == 0).count();
+        long durationMs = System.currentTimeMillis() - start;
+        LOGGER.info("Rozliczenie zysku: zamówienia " + orders + ", dopasowane " + matched
+                + ", sprzedane produkty " + productsSold + " w " + durationMs + " ms");
+        return new ProfitReconcileResultDTO(orders, matched, orders - matched, productsSold, durationMs);
+    }
+
+    public List<MonthlyProfitDTO> getMonthlyProfit(String fromMonth, String toMonth) {
+        YearMonth to = toMonth != null && !toMonth.isBlank() ? YearMonth.parse(toMonth) : YearMonth.now(zone);
+        YearMonth from = fromMonth != null && !fromMonth.isBlank() ? YearMonth.parse(fromMonth) : to.minusMonths(11);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from nie może być późniejsze niż to");
+        }
+
+        // puste miesiące też w wyniku, żeby wykres miał ciągłą oś
+        Map<YearMonth, MonthTotals> months = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month, new MonthTotals());
+        }
+
+        Instant start = from.atDay(1).atStartOfDay(zone).toInstant();
+        Instant end = to.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant();
+        for (StockXOrderMatch match : matchRepository.findBySoldAtGreaterThanEqualAndSoldAtLessThan(start, end)) {
+            MonthTotals totals = months.get(YearMonth.from(match.getSoldAt().atZone(zone)));
+            totals.orders++;
+            totals.payout = totals.payout.add(match.getPayout());
+            if (match.getCost() != null) {
+                totals.cost = totals.cost.add(match.getCost());
+            } else {
+                totals.withoutCost++;
+            }
+        }
+
+        List<MonthlyProfitDTO> result = new ArrayList<>(months.size());
+        months.forEach((month, t) -> result.add(new MonthlyProfitDTO(month.toString(), t.orders,
+                t.payout, t.cost, t.payout.subtract(t.cost), t.withoutCost)));
+        return result;
+    }
+}
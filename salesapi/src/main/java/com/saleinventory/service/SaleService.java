@@ -1,22 +1,59 @@
 package com.saleinventory.service;
 
+import com.saleinventory.dto.ChangesDTO;
 import com.saleinventory.model.Sale;
+import com.saleinventory.repository.DeletedEntityRepository;
 import com.saleinventory.repository.SaleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
 public class SaleService {
+    private static final int MAX_LIMIT = 1000;
+
     @Autowired
     private SaleRepository repo;
 
+    @Autowired
+    private SaleStatsService statsService;
+
+    @Autowired
+    private DeletedEntityRepository deletedEntityRepository;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
     public Sale save(Sale sale) {
-        return repo.save(sale);
+        Sale saved = repo.save(sale);
+        statsService.invalidate();
+        return saved;
     }
 
     public List<Sale> getAll() {
         return repo.findAll();
     }
+
+    public List<Sale> getRecent(int limit) {
+        return repo.findAllByOrderBySaleDateDescIdDesc(Limit.of(Math.min(Math.max(limit, 1), MAX_LIMIT)));
+    }
+
+    // jak ProductService.getChanges
+    public ChangesDTO<Sale> getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since nie może być ujemne");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        long upTo = changeTracker.watermark();
+        List<Sale> changed = repo.findChanged(since, upTo, Limit.of(pageSize + 1));
+        boolean hasMore = changed.size() > pageSize;
+        if (hasMore) {
+            changed = changed.subList(0, pageSize);
+            upTo = changed.get(pageSize - 1).getChangeVersion();
+        }
+        return new ChangesDTO<>(upTo, changed,
+                deletedEntityRepository.findDeletedIds(ChangeTracker.SALE, since, upTo), hasMore);
+    }
 }
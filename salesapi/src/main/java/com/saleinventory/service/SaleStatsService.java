@@ -0,0 +1,236 @@
+package com.saleinventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saleinventory.dto.SalesBucketDTO;
+import com.saleinventory.dto.SalesComparisonDTO;
+import com.saleinventory.dto.SalesProductStatsDTO;
+import com.saleinventory.dto.SalesTotalsDTO;
+import com.saleinventory.repository.SaleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Statystyki sprzedaży liczone w bazie (GROUP BY po dniu / produkcie).
+ * Tygodnie i miesiące składane są w Javie z wierszy dziennych.
+ * Wyniki są cache'owane do najbliższego zapisu przez SaleService.
+ */
+@Service
+public class SaleStatsService implements MeterBinder {
+
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    private record Key(long version, String kind, List<Object> args) {}
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Value("${sales.stats.cache.max-entries:200}")
+    private long maxEntries;
+
+    @Value("${sales.stats.top-limit-max:100}")
+    private int topLimitMax;
+
+    // seria uzupełnia puste okresy, więc jej długość zależy od zakresu, nie od danych
+    @Value("${sales.stats.max-buckets:3660}")
+    private int maxBuckets;
+
+    // wersja danych w kluczu: wynik policzony przed zapisem nigdy nie trafi do nowej wersji
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<Key, Object> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "sales.stats");
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public static Granularity parseGranularity(String value) {
+        try {
+            return Granularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nieznana granulacja: " + value + " (day, week, month)");
+        }
+    }
+
+    public List<SalesBucketDTO> getSeries(Granularity granularity, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : defaultFrom(granularity, end);
+        checkRange(start, end);
+        long buckets = bucketCount(granularity, start, end);
+        if (buckets > maxBuckets) {
+            throw new IllegalArgumentException("Zakres obejmuje " + buckets + " okresów, maksymalnie " + maxBuckets
+                    + " - zawęź from/to albo użyj większej granulacji");
+        }
+        return cached("series", List.of(granularity, start, end), () -> buildSeries(granularity, start, end));
+    }
+
+    public List<SalesProductStatsDTO> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        checkRange(start, end);
+        if (limit < 1 || limit > topLimitMax) {
+            throw new IllegalArgumentException("limit musi być w zakresie 1.." + topLimitMax);
+        }
+        return cached("top", List.of(start, end, limit),
+                () -> List.copyOf(saleRepository.topProductsByRevenue(start, end, Limit.of(limit))));
+    }
+
+    /**
+     * Porównanie z poprzednim okresem. Dla from/to jest to okno tej samej długości tuż przed from,
+     * w przeciwnym razie pełny dzień/tydzień/miesiąc zawierający date i okres poprzedni.
+     */
+    public SalesComparisonDTO compare(Granularity period, LocalDate date, LocalDate from, LocalDate to) {
+        LocalDate start;
+        LocalDate end;
+        LocalDate previousStart;
+        LocalDate previousEnd;
+        if (from != null || to != null) {
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Podaj oba parametry from i to");
+            }
+            checkRange(from, to);
+            long days = ChronoUnit.DAYS.between(from, to) + 1;
+            start = from;
+            end = to;
+            previousEnd = from.minusDays(1);
+            previousStart = previousEnd.minusDays(days - 1);
+        } else {
+            LocalDate anchor = date != null ? date : LocalDate.now();
+            start = bucketStart(period, anchor);
+            end = nextBucket(period, start).minusDays(1);
+            previousEnd = start.minusDays(1);
+            previousStart = bucketStart(period, previousEnd);
+        }
+        return cached("compare", List.of(start, end, previousStart, previousEnd), () -> {
+            SalesTotalsDTO current = saleRepository.sumTotals(start, end);
+            SalesTotalsDTO previous = saleRepository.sumTotals(previousStart, previousEnd);
+            return new SalesComparisonDTO(start, end, previousStart, previousEnd, current, previous,
+                    current.revenue().subtract(previous.revenue()),
+                    changePct(current.revenue(), previous.revenue()),
+                    current.units() - previous.units(),
+                    changePct(BigDecimal.valueOf(current.units()), BigDecimal.valueOf(previous.units())));
+        });
+    }
+
+    private List<SalesBucketDTO> buildSeries(Granularity granularity, LocalDate from, LocalDate to) {
+        List<SalesBucketDTO> days = saleRepository.sumByDay(from, to);
+        if (granularity == Granularity.DAY && days.size() == ChronoUnit.DAYS.between(from, to) + 1) {
+            return List.copyOf(days);
+        }
+
+        // puste okresy też trafiają do serii, żeby wykres nie gubił dziur
+        TreeMap<LocalDate, long[]> counts = new TreeMap<>();
+        TreeMap<LocalDate, BigDecimal> revenue = new TreeMap<>();
+        for (LocalDate start = bucketStart(granularity, from); !start.isAfter(to); start = nextBucket(granularity, start)) {
+            counts.put(start, new long[2]);
+            revenue.put(start, BigDecimal.ZERO.setScale(2));
+        }
+        for (SalesBucketDTO day : days) {
+            LocalDate start = bucketStart(granularity, day.start());
+            long[] c = counts.get(start);
+            c[0] += day.sales();
+            c[1] += day.units();
+            revenue.merge(start, day.revenue(), BigDecimal::add);
+        }
+
+        List<SalesBucketDTO> series = new ArrayList<>(counts.size());
+        counts.forEach((start, c) ->
+                series.add(new SalesBucketDTO(label(granularity, start), start, c[0], c[1], revenue.get(start))));
+        return series;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String kind, List<Object> args, Supplier<T> loader) {
+        return (T) cache.get(new Key(version.get(), kind, args), k -> loader.get());
+    }
+
+    private static LocalDate defaultFrom(Granularity granularity, LocalDate to) {
+        return switch (granularity) {
+            case DAY -> to.minusDays(29);
+            case WEEK -> bucketStart(Granularity.WEEK, to).minusWeeks(11);
+            case MONTH -> to.withDayOfMonth(1).minusMonths(11);
+        };
+    }
+
+    private static LocalDate bucketStart(Granularity granularity, LocalDate day) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextBucket(Granularity granularity, LocalDate start) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    private static long bucketCount(Granularity granularity, LocalDate from, LocalDate to) {
+        LocalDate first = bucketStart(granularity, from);
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(first, to) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(first, to) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, to) + 1;
+        };
+    }
+
+    private static String label(Granularity granularity, LocalDate start) {
+        return switch (granularity) {
+            case DAY -> start.toString();
+            case WEEK -> String.format("%d-W%02d",
+                    start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> YearMonth.from(start).toString();
+        };
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from nie może być późniejsze niż to");
+        }
+    }
+
+    private static Double changePct(BigDecimal current, BigDecimal previous) {
+        if (previous.signum() == 0) {
+            return null;
+        }
+        return current.subtract(previous)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(previous.abs(), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
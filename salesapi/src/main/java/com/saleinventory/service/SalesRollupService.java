@@ -0,0 +1,154 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.StockXOrderFactDTO;
+import com.saleinventory.model.DailySalesRollup;
+import com.saleinventory.model.MonthlySalesRollup;
+import com.saleinventory.model.StockXOrder;
+import com.saleinventory.repository.DailySalesRollupRepository;
+import com.saleinventory.repository.MonthlySalesRollupRepository;
+import com.saleinventory.repository.StockXOrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Utrzymuje dzienne i miesięczne sumy wypłat StockX. Nowe zamówienia są doliczane
+ * przyrostowo przy synchronizacji, więc analityka nie musi skanować tabeli zamówień.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger LOGGER = Logger.getLogger(SalesRollupService.class.getName());
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private DailySalesRollupRepository dailyRepository;
+
+    @Autowired
+    private MonthlySalesRollupRepository monthlyRepository;
+
+    @Autowired
+    private StockXOrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // sumy dzienne i miesięczne z samych zamówień, bez dostępu do bazy
+    public record Rollups(Map<LocalDate, DailySalesRollup> daily, Map<String, MonthlySalesRollup> monthly) {}
+
+    public static Rollups aggregate(Collection<StockXOrder> orders) {
+        Map<LocalDate, DailySalesRollup> dailyDelta = new HashMap<>();
+        Map<String, MonthlySalesRollup> monthlyDelta = new HashMap<>();
+
+        Rollups rollups = new Rollups(dailyDelta, monthlyDelta);
+        for (StockXOrder order : orders) {
+            add(rollups, order.getCreatedAt(), order.getTotalPayout());
+        }
+        return rollups;
+    }
+
+    private static void add(Rollups rollups, Instant createdAt, BigDecimal payout) {
+        if (createdAt == null || payout == null) return;
+
+        LocalDate day = createdAt.atZone(ZoneId.systemDefault()).toLocalDate();
+        DailySalesRollup daily = rollups.daily().computeIfAbsent(day, d -> new DailySalesRollup(d, 0, BigDecimal.ZERO));
+        daily.setTotalOrders(daily.getTotalOrders() + 1);
+        daily.setRevenue(daily.getRevenue().add(payout));
+
+        String month = day.format(MONTH_FORMAT);
+        MonthlySalesRollup monthly = rollups.monthly().computeIfAbsent(month, m -> new MonthlySalesRollup(m, 0, BigDecimal.ZERO));
+        monthly.setTotalOrders(monthly.getTotalOrders() + 1);
+        monthly.setRevenue(monthly.getRevenue().add(payout));
+    }
+
+    @Transactional
+    public void applyOrders(Collection<StockXOrder> orders) {
+        Rollups rollups = aggregate(orders);
+        Map<LocalDate, DailySalesRollup> dailyDelta = rollups.daily();
+        Map<String, MonthlySalesRollup> monthlyDelta = rollups.monthly();
+        if (dailyDelta.isEmpty()) return;
+
+        // jeden odczyt istniejących wierszy na tabelę, potem jeden saveAll
+        Map<LocalDate, DailySalesRollup> existingDaily = byKey(dailyRepository.findAllById(dailyDelta.keySet()), DailySalesRollup::getDay);
+        for (DailySalesRollup delta : dailyDelta.values()) {
+            DailySalesRollup current = existingDaily.get(delta.getDay());
+            if (current != null) {
+                delta.setTotalOrders(delta.getTotalOrders() + current.getTotalOrders());
+                delta.setRevenue(delta.getRevenue().add(current.getRevenue()));
+            }
+        }
+        dailyRepository.saveAll(dailyDelta.values());
+
+        Map<String, MonthlySalesRollup> existingMonthly = byKey(monthlyRepository.findAllById(monthlyDelta.keySet()), MonthlySalesRollup::getMonth);
+        for (MonthlySalesRollup delta : monthlyDelta.values()) {
+            MonthlySalesRollup current = existingMonthly.get(delta.getMonth());
+            if (current != null) {
+                delta.setTotalOrders(delta.getTotalOrders() + current.getTotalOrders());
+                delta.setRevenue(delta.getRevenue().add(current.getRevenue()));
+            }
+        }
+        monthlyRepository.saveAll(monthlyDelta.values());
+    }
+
+    /**
+     * Przelicza agregaty od zera w jednej transakcji - przerwane przeliczanie niczego nie zostawia.
+     * Zamówienia są czytane po kluczu (orderNumber > ostatni) jako projekcja bez payloadu,
+     * a sumy rosną w pamięci (tyle wierszy, ile dni i miesięcy) i są zapisywane raz na końcu.
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyRepository.deleteAllInBatch();
+            monthlyRepository.deleteAllInBatch();
+
+            Rollups rollups = new Rollups(new HashMap<>(), new HashMap<>());
+            String after = "";
+            List<StockXOrderFactDTO> chunk;
+            do {
+                chunk = orderRepository.findFactsAfter(after, Limit.of(REBUILD_CHUNK_SIZE));
+                for (StockXOrderFactDTO fact : chunk) {
+                    add(rollups, fact.createdAt(), fact.totalPayout());
+                    after = fact.orderNumber();
+                }
+            } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+            // tabele są puste, więc persist bez SELECT-a, który robiłby saveAll przy nadanym kluczu
+            rollups.daily().values().forEach(entityManager::persist);
+            rollups.monthly().values().forEach(entityManager::persist);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (monthlyRepository.count() == 0 && orderRepository.count() > 0) {
+            LOGGER.info("Brak agregatów sprzedaży - przeliczanie z lokalnej historii zamówień");
+            rebuild();
+        }
+    }
+
+    private static <K, V> Map<K, V> byKey(List<V> rows, Function<V, K> key) {
+        Map<K, V> result = new HashMap<>();
+        for (V row : rows) {
+            result.put(key.apply(row), row);
+        }
+        return result;
+    }
+}
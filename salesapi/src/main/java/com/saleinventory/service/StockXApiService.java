@@ -1,20 +1,49 @@
 package com.saleinventory.service;
 
-import org.springframework.http.*;
+import com.saleinventory.dto.StockXCatalogProductDTO;
+import com.saleinventory.dto.StockXProductsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
 
 @Service
 public class StockXApiService {
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String baseUrl = "https://gateway.stockx.com/api/v2";
-    private final String token = "YOUR_BEARER_TOKEN";
-
-    public Object getProducts(String accessToken) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + accessToken);
-        headers.setAccept(MediaType.parseMediaTypes("application/json"));
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        return restTemplate.exchange(baseUrl + "/products", HttpMethod.GET, entity, String.class);
+
+    @Value("${stockx.api.url}")
+    private String baseUrl;
+
+    @Value("${stockx.fetch.page-size:100}")
+    private int fetchPageSize;
+
+    @Autowired
+    private StockXPageFetcher pageFetcher;
+
+    @Autowired
+    private StockXCallScheduler callScheduler;
+
+    @Autowired
+    @Qualifier("stockXRestTemplate")
+    private RestTemplate restTemplate;
+
+    public StockXProductsResponse getProducts(StockXCallScheduler.Priority priority,
+                                              int pageNumber,
+                                              int pageSize) throws Exception {
+        URI uri = UriComponentsBuilder.fromUri(URI.create(baseUrl + "/products"))
+                .queryParam("pageNumber", pageNumber)
+                .queryParam("pageSize", pageSize)
+                .build()
+                .toUri();
+
+        return callScheduler.execute(priority, () -> restTemplate.getForObject(uri, StockXProductsResponse.class));
+    }
+
+    public List<StockXCatalogProductDTO> getAllProducts(StockXCallScheduler.Priority priority) throws Exception {
+        return pageFetcher.fetchAll(fetchPageSize, pageNumber -> getProducts(priority, pageNumber, fetchPageSize));
     }
 }
@@ -2,19 +2,46 @@ package com.saleinventory.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.model.StockXCredential;
+import com.saleinventory.repository.StockXCredentialRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Tokeny OAuth StockX. Aktualna para tokenów jest niemutowalnym rekordem w polu volatile,
+ * więc zapytania czytają ją bez blokowania. Harmonogram odświeża token przed wygaśnięciem;
+ * równoczesne odświeżenia (harmonogram, 401, wygasły token) czekają na jedno zapytanie.
+ * Refresh token jest zapisywany w bazie i wczytywany przy starcie.
+ */
 @Service
 public class StockXAuthService {
 
+    private static final Logger LOGGER = Logger.getLogger(StockXAuthService.class.getName());
+    private static final String CREDENTIAL_ID = "default";
+
+    private record TokenState(String accessToken, String refreshToken, Instant expiresAt) {
+
+        boolean expiresWithin(Duration window) {
+            return expiresAt != null && Instant.now().plus(window).isAfter(expiresAt);
+        }
+    }
+
     @Value("${stockx.client.id}")
     private String clientId;
 
@@ -24,65 +51,167 @@ public class StockXAuthService {
     @Value("${stockx.redirect.uri}")
     private String redirectUri;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${stockx.auth.token-url:https://accounts.stockx.com/oauth/token}")
+    private String tokenUrl;
 
-    private String accessToken;
-    private String refreshToken;
+    @Value("${stockx.auth.refresh-ahead-ms:300000}")
+    private long refreshAheadMs;
 
-    public String exchangeCodeForAccessToken(String code) {
-        String tokenUrl = "https://accounts.stockx.com/oauth/token";
+    @Autowired
+    @Qualifier("stockXAuthRestTemplate")
+    private RestTemplate restTemplate;
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+    @Autowired
+    private StockXCredentialRepository credentialRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile TokenState tokens;
+    private final AtomicReference<CompletableFuture<TokenState>> refreshInFlight = new AtomicReference<>();
+
+    public String exchangeCodeForAccessToken(String code) {
         String body = "grant_type=authorization_code"
                 + "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
                 + "&client_secret=" + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8)
                 + "&code=" + URLEncoder.encode(code, StandardCharsets.UTF_8)
                 + "&redirect_uri=" + URLEncoder.encode(redirectUri, StandardCharsets.UTF_8);
 
-        HttpEntity<String> entity = new HttpEntity<>(body, headers);
-        ResponseEntity<String> response = restTemplate.exchange(tokenUrl, HttpMethod.POST, entity, String.class);
+        TokenState state = requestTokens(body, null);
+        store(state);
+        return state.accessToken();
+    }
 
-        parseAndStoreTokens(response.getBody());
-        return accessToken;
+    public String refreshAccessToken() {
+        return awaitRefresh(tokens).accessToken();
     }
 
-    public String refreshAccessToken(String refreshToken) {
-        String tokenUrl = "https://gateway.stockx.com/oauth/token";
+    // token do zapytania; blokuje tylko gdy token już wygasł, a odświeżenie w tle nie zdążyło
+    public String getAccessToken() {
+        TokenState state = tokens;
+        if (state == null) return null;
+        if (state.expiresWithin(Duration.ZERO) && state.refreshToken() != null) {
+            try {
+                return awaitRefresh(state).accessToken();
+            } catch (RuntimeException e) {
+                LOGGER.warning("Nie udało się odświeżyć wygasłego tokenu StockX: " + e.getMessage());
+                return null;
+            }
+        }
+        return state.accessToken();
+    }
 
+    // wywoływane po 401; jeśli ktoś w międzyczasie odświeżył token, nie pytamy drugi raz
+    public String refreshAfterUnauthorized(String rejectedToken) {
+        TokenState state = tokens;
+        if (state == null || state.refreshToken() == null) return null;
+        if (state.accessToken() != null && !state.accessToken().equals(rejectedToken)) {
+            return state.accessToken();
+        }
+        return awaitRefresh(state).accessToken();
+    }
+
+    public String getRefreshToken() {
+        TokenState state = tokens;
+        return state != null ? state.refreshToken() : null;
+    }
+
+    public boolean isAuthorized() {
+        return tokens != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredTokens() {
+        credentialRepository.findById(CREDENTIAL_ID).ifPresent(credential -> {
+            tokens = new TokenState(credential.getAccessToken(), credential.getRefreshToken(), credential.getExpiresAt());
+            LOGGER.info("Wczytano zapisane tokeny StockX");
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${stockx.auth.refresh-check-ms:30000}",
+            initialDelayString = "${stockx.auth.refresh-check-ms:30000}")
+    public void refreshAhead() {
+        TokenState state = tokens;
+        if (state == null || state.refreshToken() == null) return;
+        if (!state.expiresWithin(Duration.ofMillis(refreshAheadMs))) return;
+        try {
+            awaitRefresh(state);
+            LOGGER.info("Token StockX odświeżony przed wygaśnięciem");
+        } catch (RuntimeException e) {
+            LOGGER.warning("Odświeżenie tokenu StockX nie powiodło się: " + e.getMessage());
+        }
+    }
+
+    // single-flight: pierwszy wątek wykonuje zapytanie, pozostałe czekają na ten sam wynik.
+    // seen to para tokenów, którą wołający uznał za wymagającą odświeżenia; jeśli po przejęciu
+    // odświeżania jest już inna i ważna, ktoś właśnie odświeżył i drugie zapytanie nie jest potrzebne
+    private TokenState awaitRefresh(TokenState seen) {
+        CompletableFuture<TokenState> mine = new CompletableFuture<>();
+        CompletableFuture<TokenState> running = refreshInFlight.compareAndExchange(null, mine);
+        if (running == null) {
+            try {
+                TokenState state = tokens;
+                if (state == null || state.refreshToken() == null) {
+                    throw new IllegalStateException("Brak refresh tokenu StockX - wymagana ponowna autoryzacja");
+                }
+                if (state != seen && !state.expiresWithin(Duration.ZERO)) {
+                    mine.complete(state);
+                    return state;
+                }
+                String body = "grant_type=refresh_token"
+                        + "&refresh_token=" + URLEncoder.encode(state.refreshToken(), StandardCharsets.UTF_8)
+                        + "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+                        + "&client_secret=" + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8);
+                TokenState refreshed = requestTokens(body, state.refreshToken());
+                store(refreshed);
+                mine.complete(refreshed);
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+            } finally {
+                refreshInFlight.set(null);
+            }
+            running = mine;
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano oczekiwanie na token StockX", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private TokenState requestTokens(String body, String previousRefreshToken) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
-        String body = "grant_type=refresh_token"
-                + "&refresh_token=" + URLEncoder.encode(refreshToken, StandardCharsets.UTF_8)
-                + "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
-                + "&client_secret=" + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8);
-
         HttpEntity<String> entity = new HttpEntity<>(body, headers);
         ResponseEntity<String> response = restTemplate.exchange(tokenUrl, HttpMethod.POST, entity, String.class);
 
-        parseAndStoreTokens(response.getBody());
-        return accessToken;
-    }
-
-    private void parseAndStoreTokens(String jsonBody) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(jsonBody);
-            this.accessToken = root.path("access_token").asText();
-            this.refreshToken = root.path("refresh_token").asText();
+            JsonNode root = objectMapper.readTree(response.getBody());
+            String accessToken = root.path("access_token").asText(null);
+            if (accessToken == null) {
+                throw new IllegalStateException("Brak access_token w odpowiedzi StockX");
+            }
+            // przy odświeżeniu StockX nie zawsze zwraca nowy refresh token
+            String refreshToken = root.path("refresh_token").asText(previousRefreshToken);
+            Instant expiresAt = root.hasNonNull("expires_in")
+                    ? Instant.now().plusSeconds(root.get("expires_in").asLong())
+                    : null;
+            return new TokenState(accessToken, refreshToken, expiresAt);
+        } catch (IllegalStateException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Nie udało się sparsować tokenów", e);
         }
     }
 
-    public String getAccessToken() {
-        return accessToken;
-    }
-
-    public String getRefreshToken() {
-        return refreshToken;
+    private void store(TokenState state) {
+        tokens = state;
+        credentialRepository.save(new StockXCredential(CREDENTIAL_ID, state.accessToken(), state.refreshToken(),
+                state.expiresAt(), Instant.now()));
     }
 
     public String getAuthorizationUrl() {
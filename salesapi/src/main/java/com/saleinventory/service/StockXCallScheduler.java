@@ -0,0 +1,258 @@
+package com.saleinventory.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Wszystkie zapytania do API StockX przechodzą przez wspólny budżet (token bucket
+ * dopasowany do limitu klucza API). Zapytania użytkowników (INTERACTIVE) mają pierwszeństwo
+ * i zarezerwowaną część budżetu, synchronizacje (BULK) czekają. 429 z Retry-After wstrzymuje
+ * cały ruch do podanego czasu, pozostałe błędy przejściowe są ponawiane z losowym
+ * wykładniczym opóźnieniem.
+ */
+@Component
+public class StockXCallScheduler implements MeterBinder {
+
+    private static final Logger LOGGER = Logger.getLogger(StockXCallScheduler.class.getName());
+
+    public enum Priority { INTERACTIVE, BULK }
+
+    @Value("${stockx.ratelimit.permits-per-second:10}")
+    private double permitsPerSecond;
+
+    @Value("${stockx.ratelimit.burst:10}")
+    private int burst;
+
+    @Value("${stockx.ratelimit.interactive-reserve:2}")
+    private int interactiveReserve;
+
+    @Value("${stockx.ratelimit.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${stockx.ratelimit.backoff-base-ms:500}")
+    private long backoffBaseMs;
+
+    @Value("${stockx.ratelimit.backoff-max-ms:30000}")
+    private long backoffMaxMs;
+
+    @Value("${stockx.ratelimit.interactive-max-wait-ms:10000}")
+    private long interactiveMaxWaitMs;
+
+    // ReentrantLock zamiast synchronized: czekanie na budżet nie blokuje wątku nośnego wątków wirtualnych
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition budgetChanged = lock.newCondition();
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private int interactiveWaiting;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        tokens = burst;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    public <T> T execute(Priority priority, Callable<T> call) throws Exception {
+        long deadline = priority == Priority.INTERACTIVE
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interactiveMaxWaitMs)
+                : Long.MAX_VALUE;
+
+        // ostatni błąd 5xx przed ponowieniem; jeśli ponowienie nie zmieści się w deadline, wraca ten błąd, nie 429
+        HttpStatusCodeException upstreamError = null;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                acquire(priority, deadline);
+            } catch (StockXRateLimitException limited) {
+                if (upstreamError != null) throw upstreamError;
+                throw limited;
+            }
+            calls.increment();
+            try {
+                return call.call();
+            } catch (HttpStatusCodeException e) {
+                HttpStatus status = HttpStatus.resolve(e.getStatusCode().value());
+                if (!isRetryable(status)) throw e;
+
+                long delayMs = backoffMs(attempt);
+                if (status == HttpStatus.TOO_MANY_REQUESTS) {
+                    throttled.increment();
+                    Long retryAfter = retryAfterMs(e.getResponseHeaders());
+                    long pauseMs = retryAfter != null ? retryAfter : delayMs;
+                    // limit dotyczy całego klucza, więc wstrzymujemy wszystkie kolejki
+                    pause(pauseMs);
+                    LOGGER.warning("StockX 429 - wstrzymanie zapytań na " + pauseMs + " ms");
+                    if (attempt >= maxAttempts) throw new StockXRateLimitException(pauseMs);
+                    upstreamError = null;
+                } else {
+                    long retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                    if (attempt >= maxAttempts || retryAt > deadline) throw e;
+                    sleepUntil(retryAt);
+                    upstreamError = e;
+                }
+                retries.increment();
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            stats.put("availablePermits", tokens);
+            stats.put("interactiveWaiting", interactiveWaiting);
+            stats.put("pausedForMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime())));
+        } finally {
+            lock.unlock();
+        }
+        stats.put("calls", calls.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("retries", retries.sum());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stockx.ratelimit.permits", this, s -> ((Number) s.stats().get("availablePermits")).doubleValue())
+                .description("Dostępne zapytania w budżecie StockX")
+                .register(registry);
+        Gauge.builder("stockx.ratelimit.interactive.waiting", this, s -> ((Number) s.stats().get("interactiveWaiting")).doubleValue())
+                .register(registry);
+        Gauge.builder("stockx.ratelimit.paused", this, s -> ((Number) s.stats().get("pausedForMs")).doubleValue())
+                .baseUnit("milliseconds")
+                .description("Pozostały czas wstrzymania po 429")
+                .register(registry);
+        FunctionCounter.builder("stockx.ratelimit.calls", calls, LongAdder::sum).register(registry);
+        FunctionCounter.builder("stockx.ratelimit.throttled", throttled, LongAdder::sum).register(registry);
+        FunctionCounter.builder("stockx.ratelimit.retries", retries, LongAdder::sum).register(registry);
+    }
+
+    private void acquire(Priority priority, long deadline) throws InterruptedException {
+        boolean interactive = priority == Priority.INTERACTIVE;
+        lock.lock();
+        try {
+            if (interactive) interactiveWaiting++;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+
+                    long waitNanos;
+                    if (now < pausedUntilNanos) {
+                        waitNanos = pausedUntilNanos - now;
+                    } else if (!interactive && interactiveWaiting > 0) {
+                        // zapytania użytkowników idą pierwsze; obudzi nas signalAll po ich obsłużeniu
+                        waitNanos = nanosUntil(1);
+                    } else {
+                        // BULK nie może zejść poniżej rezerwy, żeby użytkownik nie czekał na pełne wiadro
+                        double needed = interactive ? 1 : 1 + Math.min(interactiveReserve, burst - 1);
+                        if (tokens >= needed) {
+                            tokens -= 1;
+                            return;
+                        }
+                        waitNanos = nanosUntil(needed);
+                    }
+
+                    if (now + waitNanos > deadline) {
+                        throw new StockXRateLimitException(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                    }
+                    budgetChanged.awaitNanos(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+                }
+            } finally {
+                if (interactive) {
+                    interactiveWaiting--;
+                    budgetChanged.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // w czasie wstrzymania po 429 wiadro się nie napełnia
+    private void refill(long now) {
+        long from = Math.max(lastRefillNanos, pausedUntilNanos);
+        if (now > from) {
+            tokens = Math.min(burst, tokens + (now - from) / 1e9 * permitsPerSecond);
+        }
+        lastRefillNanos = now;
+    }
+
+    private long nanosUntil(double needed) {
+        return (long) (Math.max(needed - tokens, 0) / permitsPerSecond * 1e9);
+    }
+
+    private void pause(long millis) {
+        lock.lock();
+        try {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            if (until > pausedUntilNanos) {
+                pausedUntilNanos = until;
+                tokens = 0;
+            }
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // full jitter: losowo z przedziału [0, min(max, base * 2^(attempt-1))]
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(HttpStatus status) {
+        return status == HttpStatus.TOO_MANY_REQUESTS
+                || status == HttpStatus.BAD_GATEWAY
+                || status == HttpStatus.SERVICE_UNAVAILABLE
+                || status == HttpStatus.GATEWAY_TIMEOUT;
+    }
+
+    // Retry-After w sekundach albo jako data HTTP
+    private static Long retryAfterMs(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
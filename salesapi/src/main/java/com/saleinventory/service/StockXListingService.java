@@ -1,9 +1,11 @@
 
 package com.saleinventory.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXListingDTO;
+import com.saleinventory.dto.StockXListingsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -18,23 +20,30 @@ public class StockXListingService {
     @Value("${stockx.api.url}")
     private String baseUrl;
 
-    @Value("${stockx.api.key}")
-    private String apiKey;
+    @Value("${stockx.fetch.page-size:100}")
+    private int fetchPageSize;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private StockXPageFetcher pageFetcher;
 
-    public Object getListings(String accessToken,
-                              int pageNumber,
-                              int pageSize,
-                              String productIds,
-                              String variantIds,
-                              String batchIds,
-                              String fromDate,
-                              String toDate,
-                              String listingStatuses,
-                              String inventoryTypes,
-                              String initiatedShipmentDisplayIds) throws Exception {
+    @Autowired
+    private StockXCallScheduler callScheduler;
+
+    @Autowired
+    @Qualifier("stockXRestTemplate")
+    private RestTemplate restTemplate;
+
+    public StockXListingsResponse getListings(StockXCallScheduler.Priority priority,
+                                              int pageNumber,
+                                              int pageSize,
+                                              String productIds,
+                                              String variantIds,
+                                              String batchIds,
+                                              String fromDate,
+                                              String toDate,
+                                              String listingStatuses,
+                                              String inventoryTypes,
+                                              String initiatedShipmentDisplayIds) throws Exception {
 
         URI uri = UriComponentsBuilder.fromUri(URI.create(baseUrl + "/selling/listings"))
                 .queryParam("pageNumber", pageNumber)
@@ -50,14 +59,17 @@ public class StockXListingService {
                 .build()
                 .toUri();
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-        headers.set("x-api-key", apiKey);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, entity, String.class);
+        // Jackson wiąże rekordy prosto ze strumienia odpowiedzi, bez pośredniego Stringa
+        return callScheduler.execute(priority, () -> restTemplate.getForObject(uri, StockXListingsResponse.class));
+    }
 
-        return objectMapper.readValue(response.getBody(), Object.class);
+    public List<StockXListingDTO> getAllListings(StockXCallScheduler.Priority priority,
+                                                 String productIds,
+                                                 String variantIds,
+                                                 String listingStatuses,
+                                                 String inventoryTypes) throws Exception {
+        return pageFetcher.fetchAll(fetchPageSize, pageNumber -> getListings(
+                priority, pageNumber, fetchPageSize, productIds, variantIds, null,
+                null, null, listingStatuses, inventoryTypes, null));
     }
 }
@@ -0,0 +1,301 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.*;
+import com.saleinventory.model.StockXListing;
+import com.saleinventory.model.StockXListingChange;
+import com.saleinventory.repository.StockXListingChangeRepository;
+import com.saleinventory.repository.StockXListingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Lokalna kopia aktywnych listingów StockX. Reconciler pobiera aktywne listingi, porównuje skrót
+ * treści z zapisanym (jedno zapytanie o skróty) i zapisuje tylko nowe, zmienione oraz te, które
+ * zniknęły z aktywnych - więc zapisy są proporcjonalne do zmian, a nie do liczby listingów.
+ * Zmiany ceny i statusu trafiają do dziennika stockx_listing_change w transakcji zmienionego wiersza.
+ * Ekran listingów czyta z tabeli, gdy filtruje tylko aktywne.
+ */
+@Service
+public class StockXListingSnapshotService {
+
+    private static final Logger LOGGER = Logger.getLogger(StockXListingSnapshotService.class.getName());
+
+    private static final String ACTIVE = "ACTIVE";
+    // listing zniknął z aktywnych; API nie mówi, czy został sprzedany, czy zdjęty
+    private static final String INACTIVE = "INACTIVE";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_CHANGES = 10000;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    @Autowired
+    private StockXListingService listingService;
+
+    @Autowired
+    private StockXAuthService authService;
+
+    @Autowired
+    private StockXListingRepository listingRepository;
+
+    @Autowired
+    private StockXListingChangeRepository changeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${stockx.listings.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${stockx.listings.sync-interval-ms:300000}",
+            initialDelayString = "${stockx.listings.sync-initial-delay-ms:30000}")
+    public void scheduledSync() {
+        if (!authService.isAuthorized()) {
+            return;
+        }
+        try {
+            ListingSyncResultDTO result = syncListings();
+            LOGGER.info("Synchronizacja listingów StockX: nowe " + result.inserted() + ", zmienione " + result.updated()
+                    + ", nieaktywne " + result.deactivated() + ", bez zmian " + result.unchanged());
+        } catch (Exception e) {
+            LOGGER.warning("Synchronizacja listingów StockX nie powiodła się: " + e.getMessage());
+        }
+    }
+
+    // jedna synchronizacja naraz; ReentrantLock, bo w trakcie jest I/O
+    public ListingSyncResultDTO syncListings() throws Exception {
+        syncLock.lock();
+        try {
+            return syncListingsLocked();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private ListingSyncResultDTO syncListingsLocked() throws Exception {
+        long start = System.currentTimeMillis();
+        List<StockXListingDTO> incoming = listingService.getAllListings(StockXCallScheduler.Priority.BULK,
+                null, null, ACTIVE, null);
+
+        Map<String, ListingSyncStateDTO> existing = new HashMap<>();
+        for (ListingSyncStateDTO state : listingRepository.findSyncStates()) {
+            existing.put(state.listingId(), state);
+        }
+
+        // listing może wrócić na dwóch stronach, jeśli lista zmieniła się w trakcie pobierania
+        Map<String, StockXListingDTO> unique = new LinkedHashMap<>();
+        for (StockXListingDTO listing : incoming) {
+            if (listing.listingId() != null) {
+                unique.put(listing.listingId(), listing);
+            }
+        }
+
+        Instant now = Instant.now();
+        List<StockXListing> inserts = new ArrayList<>();
+        Map<String, StockXListingDTO> updates = new LinkedHashMap<>();
+        Map<String, String> updateHashes = new HashMap<>();
+        // najwyżej jedna zmiana na listing; zapisywana w transakcji paczki z tym listingiem
+        Map<String, StockXListingChange> changes = new HashMap<>();
+        int unchanged = 0;
+        for (StockXListingDTO listing : unique.values()) {
+            String hash = contentHash(listing);
+            ListingSyncStateDTO state = existing.get(listing.listingId());
+            if (state == null) {
+                StockXListing entity = new StockXListing();
+                entity.setListingId(listing.listingId());
+                apply(entity, listing, hash, now);
+                inserts.add(entity);
+                changes.put(listing.listingId(),
+                        new StockXListingChange(null, listing.listingId(), now, null, listing.status(), null, listing.amount()));
+            } else if (!hash.equals(state.contentHash())) {
+                updates.put(listing.listingId(), listing);
+                updateHashes.put(listing.listingId(), hash);
+                if (!Objects.equals(state.status(), listing.status()) || !sameAmount(state.amount(), listing.amount())) {
+                    changes.put(listing.listingId(), new StockXListingChange(null, listing.listingId(), now,
+                            state.status(), listing.status(), state.amount(), listing.amount()));
+                }
+            } else {
+                unchanged++;
+            }
+        }
+
+        List<String> deactivated = new ArrayList<>();
+        for (ListingSyncStateDTO state : existing.values()) {
+            if (ACTIVE.equals(state.status()) && !unique.containsKey(state.listingId())) {
+                deactivated.add(state.listingId());
+                changes.put(state.listingId(), new StockXListingChange(null, state.listingId(), now, state.status(), INACTIVE,
+                        state.amount(), state.amount()));
+            }
+        }
+
+        // wiersze i ich zmiany w jednej transakcji paczki - inaczej po błędzie w połowie wiersz miałby już
+        // nowy skrót, a następna synchronizacja nie zapisałaby jego zmiany do dziennika
+        for (int from = 0; from < inserts.size(); from += chunkSize) {
+            List<StockXListing> chunk = inserts.subList(from, Math.min(from + chunkSize, inserts.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                // persist zamiast saveAll - klucz jest nadany, więc saveAll robiłby SELECT na każdy wiersz
+                chunk.forEach(entityManager::persist);
+                chunk.forEach(entity -> persistChange(changes, entity.getListingId()));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        List<String> updateIds = new ArrayList<>(updates.keySet());
+        updateIds.addAll(deactivated);
+        for (int from = 0; from < updateIds.size(); from += chunkSize) {
+            List<String> chunk = updateIds.subList(from, Math.min(from + chunkSize, updateIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                // jedno zapytanie IN na paczkę, zmiany wychodzą przy flush jako batch UPDATE
+                for (StockXListing entity : listingRepository.findAllById(chunk)) {
+                    StockXListingDTO listing = updates.get(entity.getListingId());
+                    if (listing != null) {
+                        apply(entity, listing, updateHashes.get(entity.getListingId()), now);
+                    } else {
+                        entity.setStatus(INACTIVE);
+                        entity.setContentHash(null);
+                        entity.setLastChangedAt(now);
+                    }
+                }
+                chunk.forEach(listingId -> persistChange(changes, listingId));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        return new ListingSyncResultDTO(incoming.size(), inserts.size(), updates.size(), deactivated.size(),
+                unchanged, changes.size(), System.currentTimeMillis() - start);
+    }
+
+    private void persistChange(Map<String, StockXListingChange> changes, String listingId) {
+        StockXListingChange change = changes.get(listingId);
+        if (change != null) {
+            entityManager.persist(change);
+        }
+    }
+
+    /**
+     * Listingi z lokalnej tabeli, najnowsze pierwsze; parametry i kształt odpowiedzi jak w
+     * /api/stockx/listings, żeby ekran mógł przełączyć źródło bez zmian w widoku.
+     * Filtry przyjmują listy po przecinku.
+     */
+    public Map<String, Object> getListings(String productIds, String variantIds, String listingStatuses,
+                                           String inventoryTypes, int pageNumber, int pageSize) {
+        if (pageNumber < 1) {
+            throw new IllegalArgumentException("pageNumber musi być >= 1");
+        }
+        int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        Specification<StockXListing> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            addIn(predicates, root.get("productId"), productIds);
+            addIn(predicates, root.get("variantId"), variantIds);
+            addIn(predicates, root.get("status"), listingStatuses);
+            addIn(predicates, root.get("inventoryType"), inventoryTypes);
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        Page<StockXListing> page = listingRepository.findAll(spec, PageRequest.of(pageNumber - 1, size,
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("listingId"))));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", page.getTotalElements());
+        result.put("pageSize", size);
+        result.put("pageNumber", pageNumber);
+        result.put("hasNextPage", page.hasNext());
+        result.put("listings", page.getContent().stream().map(StockXListingSnapshotService::toDto).toList());
+        return result;
+    }
+
+    // zmiany ceny/statusu po (since, afterId), najstarsze pierwsze; kursor kolejnej strony to changedAt i id
+    // ostatniej pozycji. Bez afterId - wszystko po chwili since
+    public List<ListingChangeDTO> getChangesSince(Instant since, Long afterId, int limit) {
+        if (since == null) {
+            throw new IllegalArgumentException("Parametr since jest wymagany (np. 2025-01-01T00:00:00Z)");
+        }
+        return changeRepository.findChangedSince(since, afterId != null ? afterId : Long.MAX_VALUE,
+                Limit.of(Math.min(Math.max(limit, 1), MAX_CHANGES)));
+    }
+
+    public List<StockXListingChange> getHistory(String listingId) {
+        return changeRepository.findByListingIdOrderByChangedAt(listingId);
+    }
+
+    private static void addIn(List<Predicate> predicates, Path<String> path, String values) {
+        if (values == null || values.isBlank()) return;
+        List<String> list = Arrays.stream(values.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
+        if (!list.isEmpty()) predicates.add(path.in(list));
+    }
+
+    private static void apply(StockXListing entity, StockXListingDTO listing, String hash, Instant now) {
+        entity.setStatus(listing.status());
+        entity.setAmount(listing.amount());
+        entity.setCurrencyCode(listing.currencyCode());
+        entity.setInventoryType(listing.inventoryType());
+        entity.setProductId(listing.product() != null ? listing.product().productId() : null);
+        entity.setProductName(listing.product() != null ? listing.product().productName() : null);
+        entity.setStyleId(listing.product() != null ? listing.product().styleId() : null);
+        entity.setVariantId(listing.variant() != null ? listing.variant().variantId() : null);
+        entity.setVariantName(listing.variant() != null ? listing.variant().variantName() : null);
+        entity.setVariantValue(listing.variant() != null ? listing.variant().variantValue() : null);
+        entity.setCreatedAt(listing.createdAt());
+        entity.setUpdatedAt(listing.updatedAt());
+        entity.setContentHash(hash);
+        entity.setLastChangedAt(now);
+    }
+
+    private static StockXListingDTO toDto(StockXListing l) {
+        return new StockXListingDTO(l.getListingId(), l.getStatus(), l.getAmount(), l.getCurrencyCode(),
+                l.getInventoryType(), l.getCreatedAt(), l.getUpdatedAt(),
+                new StockXProductRefDTO(l.getProductId(), l.getProductName(), l.getStyleId()),
+                new StockXVariantRefDTO(l.getVariantId(), l.getVariantName(), l.getVariantValue()));
+    }
+
+    // "150" z API i 150.00 z bazy to ta sama cena
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    // skrót tylko z pól, które zapisujemy; cena znormalizowana do skali kolumny
+    private static String contentHash(StockXListingDTO listing) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        StockXProductRefDTO product = listing.product();
+        StockXVariantRefDTO variant = listing.variant();
+        String[] fields = {
+                listing.status(),
+                listing.amount() != null ? listing.amount().setScale(2, RoundingMode.HALF_UP).toPlainString() : null,
+                listing.currencyCode(), listing.inventoryType(),
+                product != null ? product.productId() : null, product != null ? product.productName() : null,
+                product != null ? product.styleId() : null,
+                variant != null ? variant.variantId() : null, variant != null ? variant.variantName() : null,
+                variant != null ? variant.variantValue() : null,
+                String.valueOf(listing.createdAt()), String.valueOf(listing.updatedAt())
+        };
+        for (String field : fields) {
+            digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0x1f);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
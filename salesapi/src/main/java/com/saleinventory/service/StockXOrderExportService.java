@@ -0,0 +1,96 @@
+package com.saleinventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXOrderDTO;
+import com.saleinventory.dto.StockXOrdersResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Eksport historii zamówień prosto ze StockX jako NDJSON (jedno zamówienie w linii).
+ * Strony są pobierane po kolei: w trakcie zapisu strony n pobierana jest strona n+1,
+ * więc w pamięci są najwyżej dwie strony niezależnie od liczby zamówień. Zapis do
+ * wolnego klienta blokuje, a kolejna strona nie jest pobierana, dopóki poprzednia
+ * nie zostanie wysłana.
+ */
+@Service
+public class StockXOrderExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    @Autowired
+    private StockXOrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${stockx.fetch.page-size:100}")
+    private int pageSize;
+
+    private final ExecutorService prefetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    // pierwsza strona jeszcze przed odpowiedzią: błąd (np. 429) wraca ze statusem, a pierwszy bajt
+    // wychodzi po jednym zapytaniu do StockX; dalsze strony jako BULK, żeby eksport nie blokował innych
+    public StreamingResponseBody openExport(String fromDate, String toDate, String orderStatus) throws Exception {
+        StockXOrdersResponse first = orderService.getHistoricalOrders(StockXCallScheduler.Priority.INTERACTIVE,
+                fromDate, toDate, orderStatus, 1, pageSize, "createdAt", "asc");
+        return out -> writePages(out, first, fromDate, toDate, orderStatus);
+    }
+
+    private void writePages(OutputStream out, StockXOrdersResponse first,
+                            String fromDate, String toDate, String orderStatus) throws IOException {
+        StockXOrdersResponse page = first;
+        int pageNumber = 1;
+        while (true) {
+            Future<StockXOrdersResponse> next = null;
+            if (page.hasNextPage() && !page.items().isEmpty()) {
+                int nextPageNumber = pageNumber + 1;
+                next = prefetchExecutor.submit(() -> orderService.getHistoricalOrders(StockXCallScheduler.Priority.BULK,
+                        fromDate, toDate, orderStatus, nextPageNumber, pageSize, "createdAt", "asc"));
+            }
+            try {
+                for (StockXOrderDTO order : page.items()) {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write(NEWLINE);
+                }
+                out.flush();
+            } catch (IOException e) {
+                // klient się rozłączył - nie pobieramy dalej
+                if (next != null) next.cancel(true);
+                throw e;
+            }
+
+            if (next == null) return;
+            page = await(next);
+            pageNumber++;
+        }
+    }
+
+    // odpowiedź jest już w toku, więc błąd kolejnej strony przerywa strumień (klient dostaje niepełny chunked)
+    private static StockXOrdersResponse await(Future<StockXOrdersResponse> next) throws IOException {
+        try {
+            return next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            next.cancel(true);
+            throw new IOException("Przerwano eksport historii", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Błąd pobierania strony historii StockX: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.OrderFactsGroupDTO;
+import com.saleinventory.dto.StockXOrderFactDTO;
+import com.saleinventory.model.StockXOrder;
+import com.saleinventory.repository.StockXOrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Utrzymuje OrderFactStore: ładuje go z tabeli stockx_order przy starcie
+ * i dopisuje zamówienia z każdej synchronizacji historii.
+ */
+@Service
+public class StockXOrderFactService implements MeterBinder {
+
+    private static final Logger LOGGER = Logger.getLogger(StockXOrderFactService.class.getName());
+
+    @Autowired
+    private StockXOrderRepository orderRepository;
+
+    @Value("${stockx.order-facts.segment-size:65536}")
+    private int segmentSize;
+
+    @Value("${stockx.order-facts.parallel-threshold:500000}")
+    private int parallelThreshold;
+
+    @Value("${stockx.order-facts.load-chunk-size:5000}")
+    private int loadChunkSize;
+
+    private OrderFactStore store;
+
+    @PostConstruct
+    void init() {
+        store = new OrderFactStore(ZoneId.systemDefault(), segmentSize, parallelThreshold);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stockx.order.facts.rows", this, s -> s.store.size())
+                .description("Zamówienia w kolumnowym magazynie faktów")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        store.clear();
+        String after = "";
+        List<StockXOrderFactDTO> chunk;
+        do {
+            chunk = orderRepository.findFactsAfter(after, Limit.of(loadChunkSize));
+            for (StockXOrderFactDTO fact : chunk) {
+                store.upsert(fact.orderNumber(), fact.createdAt(), fact.totalPayout(),
+                        fact.productId(), fact.productName(), fact.variantId(), fact.variantName());
+                after = fact.orderNumber();
+            }
+        } while (chunk.size() == loadChunkSize);
+        LOGGER.info("Magazyn faktów zamówień: " + store.size() + " zamówień w "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // zamówienia już obecne w magazynie są nadpisywane, więc ponowna synchronizacja nic nie dubluje
+    public void ingest(Collection<StockXOrder> orders) {
+        for (StockXOrder order : orders) {
+            store.upsert(order.getOrderNumber(), order.getCreatedAt(), order.getTotalPayout(),
+                    order.getProductId(), order.getProductName(), order.getVariantId(), order.getVariantName());
+        }
+    }
+
+    public List<OrderFactsGroupDTO> aggregate(LocalDate from, LocalDate to, String groupBy) {
+        OrderFactStore.GroupBy group;
+        try {
+            group = OrderFactStore.GroupBy.valueOf(groupBy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nieznane grupowanie: " + groupBy + " (day, week, month, product, variant)");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from nie może być późniejsze niż to");
+        }
+        return store.aggregate(from, to, group);
+    }
+}
@@ -0,0 +1,258 @@
+package com.saleinventory.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXOrderDTO;
+import com.saleinventory.dto.StockXOrderPageDTO;
+import com.saleinventory.model.StockXOrder;
+import com.saleinventory.repository.StockXOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Lokalna kopia historii zamówień StockX. Harmonogram dociąga tylko zamówienia nowsze
+ * niż ostatnie zapisane (createdAt + orderNumber), a endpointy historii i analityki
+ * czytają już wyłącznie z tabeli stockx_order.
+ */
+@Service
+public class StockXOrderHistoryService {
+
+    private static final Logger LOGGER = Logger.getLogger(StockXOrderHistoryService.class.getName());
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "updatedAt", "amount", "status", "orderNumber");
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    @Autowired
+    private StockXOrderService orderService;
+
+    @Autowired
+    private StockXAuthService authService;
+
+    @Autowired
+    private StockXOrderRepository orderRepository;
+
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private StockXOrderFactService factService;
+
+    @Autowired
+    private ProfitService profitService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Scheduled(fixedDelayString = "${stockx.orders.sync-interval-ms:600000}",
+            initialDelayString = "${stockx.orders.sync-initial-delay-ms:30000}")
+    public void scheduledSync() {
+        if (!authService.isAuthorized()) {
+            return;
+        }
+        try {
+            int saved = syncOrders();
+            LOGGER.info("Synchronizacja historii StockX: zapisano " + saved + " zamówień");
+        } catch (Exception e) {
+            LOGGER.warning("Synchronizacja historii StockX nie powiodła się: " + e.getMessage());
+        }
+    }
+
+    // jedna synchronizacja naraz; ReentrantLock, bo w trakcie jest I/O, a synchronized przypina wątek wirtualny
+    public int syncOrders() throws Exception {
+        syncLock.lock();
+        try {
+            return syncOrdersLocked();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private int syncOrdersLocked() throws Exception {
+        Optional<StockXOrder> watermark = orderRepository.findTopByOrderByCreatedAtDescOrderNumberDesc();
+        // StockX filtruje po dniu, więc zaczynamy od dnia ostatniego zamówienia i odrzucamy starsze
+        String fromDate = watermark
+                .map(o -> o.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDate().toString())
+                .orElse(null);
+
+        // synchronizacja jest pracą w tle, więc ustępuje zapytaniom użytkowników; każda strona
+        // zapisuje się od razu, więc w pamięci jest najwyżej kilka stron naraz
+        int[] saved = new int[1];
+        StockXOrder after = watermark.orElse(null);
+        orderService.forEachHistoricalOrderPage(StockXCallScheduler.Priority.BULK, fromDate, "createdAt", "asc", page -> {
+            // to samo zamówienie dwa razy na stronie dałoby dwa persist z tym samym kluczem
+            Map<String, StockXOrder> unique = new LinkedHashMap<>();
+            for (StockXOrderDTO order : page) {
+                StockXOrder entity = toEntity(order);
+                if (entity != null && isNewer(entity, after)) {
+                    unique.put(entity.getOrderNumber(), entity);
+                }
+            }
+            List<StockXOrder> batch = new ArrayList<>(unique.values());
+            if (!batch.isEmpty()) {
+                saveBatch(batch);
+                factService.ingest(batch);
+                saved[0] += batch.size();
+            }
+        });
+
+        // błąd rozliczenia zysku nie cofa zapisanej historii; kolejna synchronizacja spróbuje ponownie
+        try {
+            profitService.reconcile();
+        } catch (Exception e) {
+            LOGGER.warning("Rozliczenie zysku po synchronizacji nie powiodło się: " + e.getMessage());
+        }
+
+        return saved[0];
+    }
+
+    /**
+     * Zamówienia i przyrost agregatów w jednej transakcji - albo jedno i drugie, albo nic, inaczej
+     * zapisane zamówienie przy następnej synchronizacji byłoby już "stare" i nie trafiłoby do agregatów.
+     */
+    private void saveBatch(List<StockXOrder> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // jedno zapytanie IN; istniejące trafiają do kontekstu i merge nie robi już SELECT-a
+            Set<String> existing = new HashSet<>();
+            orderRepository.findAllById(batch.stream().map(StockXOrder::getOrderNumber).toList())
+                    .forEach(o -> existing.add(o.getOrderNumber()));
+            List<StockXOrder> inserted = new ArrayList<>();
+            for (StockXOrder order : batch) {
+                if (existing.contains(order.getOrderNumber())) {
+                    entityManager.merge(order);
+                } else {
+                    // persist zamiast saveAll - klucz jest nadany, więc saveAll robiłby SELECT na każdy wiersz
+                    entityManager.persist(order);
+                    inserted.add(order);
+                }
+            }
+            // do agregatów doliczamy tylko zamówienia, których jeszcze nie było w bazie
+            rollupService.applyOrders(inserted);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    // zamówienia zapisane przed dodaniem kolumn sku/size - uzupełniane z zapisanego JSON-a
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSkuAndSize() {
+        String after = "";
+        int updated = 0;
+        while (after != null) {
+            String from = after;
+            int[] chunkUpdated = new int[1];
+            after = transactionTemplate.execute(status -> {
+                List<StockXOrder> chunk = orderRepository.findWithoutSkuAfter(from, Limit.of(BACKFILL_CHUNK_SIZE));
+                for (StockXOrder order : chunk) {
+                    try {
+                        applyProductRefs(order, objectMapper.readValue(order.getPayload(), StockXOrderDTO.class));
+                        if (order.getSku() != null) chunkUpdated[0]++;
+                    } catch (Exception e) {
+                        LOGGER.warning("Nieczytelny JSON zamówienia " + order.getOrderNumber() + ": " + e.getMessage());
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return chunk.size() == BACKFILL_CHUNK_SIZE ? chunk.get(chunk.size() - 1).getOrderNumber() : null;
+            });
+            updated += chunkUpdated[0];
+        }
+        if (updated > 0) {
+            LOGGER.info("Uzupełniono sku/size w " + updated + " zamówieniach StockX");
+        }
+    }
+
+    public StockXOrderPageDTO getOrders(String fromDate,
+                                        String toDate,
+                                        String orderStatus,
+                                        int pageNumber,
+                                        int pageSize,
+                                        String sortBy,
+                                        String sortDir) throws Exception {
+        String sortField = sortBy != null && SORTABLE_FIELDS.contains(sortBy) ? sortBy : "createdAt";
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sortDir).orElse(Sort.Direction.DESC);
+        Sort sort = Sort.by(direction, sortField).and(Sort.by(direction, "orderNumber"));
+
+        Page<StockXOrder> page = orderRepository.search(
+                blankToNull(orderStatus),
+                startOfDay(fromDate, 0),
+                startOfDay(toDate, 1),
+                PageRequest.of(Math.max(pageNumber, 1) - 1, Math.max(pageSize, 1), sort));
+
+        List<JsonNode> orders = new ArrayList<>(page.getNumberOfElements());
+        for (StockXOrder order : page.getContent()) {
+            orders.add(objectMapper.readTree(order.getPayload()));
+        }
+        return new StockXOrderPageDTO(page.getTotalElements(), pageNumber, pageSize, page.hasNext(), orders);
+    }
+
+    private StockXOrder toEntity(StockXOrderDTO order) throws Exception {
+        if (order.orderNumber() == null || order.createdAt() == null) return null;
+
+        StockXOrder entity = new StockXOrder();
+        entity.setOrderNumber(order.orderNumber());
+        entity.setListingId(order.listingId());
+        entity.setCreatedAt(order.createdAt());
+        entity.setUpdatedAt(order.updatedAt());
+        entity.setStatus(order.status());
+        entity.setInventoryType(order.inventoryType());
+        entity.setAmount(order.amount());
+        entity.setCurrencyCode(order.currencyCode());
+        entity.setTotalPayout(order.payout() != null ? order.payout().totalPayout() : null);
+        applyProductRefs(entity, order);
+        entity.setPayload(objectMapper.writeValueAsString(order));
+        return entity;
+    }
+
+    private static void applyProductRefs(StockXOrder entity, StockXOrderDTO order) {
+        if (order.product() != null) {
+            entity.setProductId(order.product().productId());
+            entity.setProductName(order.product().productName());
+            entity.setSku(order.product().styleId());
+        }
+        if (order.variant() != null) {
+            entity.setVariantId(order.variant().variantId());
+            entity.setVariantName(order.variant().variantName());
+            entity.setSize(order.variant().variantValue());
+        }
+    }
+
+    private static boolean isNewer(StockXOrder order, StockXOrder watermark) {
+        if (watermark == null) return true;
+        int byDate = order.getCreatedAt().compareTo(watermark.getCreatedAt());
+        return byDate > 0 || (byDate == 0 && order.getOrderNumber().compareTo(watermark.getOrderNumber()) > 0);
+    }
+
+    private static Instant startOfDay(String date, int plusDays) {
+        if (date == null || date.isBlank()) return null;
+        return LocalDate.parse(date).plusDays(plusDays).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,8 +1,10 @@
 package com.saleinventory.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saleinventory.dto.StockXOrderDTO;
+import com.saleinventory.dto.StockXOrdersResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -17,20 +19,27 @@ public class StockXOrderService {
     @Value("${stockx.api.url}")
     private String baseUrl;
 
-    @Value("${stockx.api.key}")
-    private String apiKey;
+    @Value("${stockx.fetch.page-size:100}")
+    private int fetchPageSize;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private StockXPageFetcher pageFetcher;
 
-    public Object getHistoricalOrders(String accessToken,
-                                      String fromDate,
-                                      String toDate,
-                                      String orderStatus,
-                                      int pageNumber,
-                                      int pageSize,
-                                      String sortBy,
-                                      String sortDir) throws Exception {
+    @Autowired
+    private StockXCallScheduler callScheduler;
+
+    @Autowired
+    @Qualifier("stockXRestTemplate")
+    private RestTemplate restTemplate;
+
+    public StockXOrdersResponse getHistoricalOrders(StockXCallScheduler.Priority priority,
+                                                    String fromDate,
+                                                    String toDate,
+                                                    String orderStatus,
+                                                    int pageNumber,
+                                                    int pageSize,
+                                                    String sortBy,
+                                                    String sortDir) throws Exception {
 
         URI uri = UriComponentsBuilder.fromUri(URI.create(baseUrl + "/selling/orders/history"))
                 .queryParamIfPresent("fromDate", Optional.ofNullable(fromDate).filter(s -> !s.isBlank()))
@@ -43,14 +52,27 @@ public class StockXOrderService {
                 .build()
                 .toUri();
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-        headers.set("x-api-key", apiKey);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        // Jackson wiąże rekordy prosto ze strumienia odpowiedzi, bez pośredniego Stringa
+        return callScheduler.execute(priority, () -> restTemplate.getForObject(uri, StockXOrdersResponse.class));
+    }
 
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, entity, String.class);
+    public List<StockXOrderDTO> getAllHistoricalOrders(StockXCallScheduler.Priority priority,
+                                                       String fromDate,
+                                                       String toDate,
+                                                       String orderStatus,
+                                                       String sortBy,
+                                                       String sortDir) throws Exception {
+        return pageFetcher.fetchAll(fetchPageSize, pageNumber -> getHistoricalOrders(
+                priority, fromDate, toDate, orderStatus, pageNumber, fetchPageSize, sortBy, sortDir));
+    }
 
-        return objectMapper.readValue(response.getBody(), Object.class);
+    // strony historii po kolei do consumer, bez składania całej historii w jedną listę
+    public void forEachHistoricalOrderPage(StockXCallScheduler.Priority priority,
+                                           String fromDate,
+                                           String sortBy,
+                                           String sortDir,
+                                           StockXPageFetcher.PageConsumer<StockXOrderDTO> consumer) throws Exception {
+        pageFetcher.forEachPage(fetchPageSize, pageNumber -> getHistoricalOrders(
+                priority, fromDate, null, null, pageNumber, fetchPageSize, sortBy, sortDir), consumer);
     }
 }
@@ -0,0 +1,111 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.StockXPage;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pobiera wszystkie strony stronicowanego endpointu StockX. Pierwsza strona mówi ile jest
+ * wyników (count), pozostałe strony są pobierane równolegle (maks. stockx.fetch.parallelism
+ * naraz) i sklejane w kolejności stron. Zadania dostają kontekst obserwacji wątku wołającego,
+ * więc zapytania do API liczą się do zapytania HTTP, które je wywołało.
+ */
+@Component
+public class StockXPageFetcher implements MeterBinder {
+
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        StockXPage<T> load(int pageNumber) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface PageConsumer<T> {
+        void accept(List<T> items) throws Exception;
+    }
+
+    @Value("${stockx.fetch.parallelism:4}")
+    private int parallelism;
+
+    private ExecutorService pool;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(parallelism, 1), r -> {
+            Thread thread = new Thread(r, "stockx-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = ContextExecutorService.wrap(pool, ContextSnapshotFactory.builder().build()::captureAll);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "stockx.fetch", List.of()).bindTo(registry);
+    }
+
+    public <T> List<T> fetchAll(int pageSize, PageLoader<T> loader) throws Exception {
+        List<T> result = new ArrayList<>();
+        forEachPage(pageSize, loader, result::addAll);
+        return result;
+    }
+
+    /**
+     * Jak fetchAll, ale każda strona trafia do consumer w kolejności stron, gdy tylko jest gotowa.
+     * Naprzód pobieranych jest najwyżej parallelism stron, więc w pamięci nie leży cała historia.
+     */
+    public <T> void forEachPage(int pageSize, PageLoader<T> loader, PageConsumer<T> consumer) throws Exception {
+        StockXPage<T> first = loader.load(1);
+        consumer.accept(first.items());
+
+        if (first.count() == null) {
+            // brak licznika w odpowiedzi - zostaje pobieranie strona po stronie
+            int pageNumber = 1;
+            StockXPage<T> page = first;
+            while (page.hasNextPage()) {
+                page = loader.load(++pageNumber);
+                consumer.accept(page.items());
+            }
+            return;
+        }
+
+        int totalPages = (int) Math.ceil(first.count().doubleValue() / pageSize);
+        Deque<Future<StockXPage<T>>> pages = new ArrayDeque<>();
+        int nextPage = 2;
+        try {
+            while (nextPage <= totalPages || !pages.isEmpty()) {
+                while (nextPage <= totalPages && pages.size() < Math.max(parallelism, 1)) {
+                    int current = nextPage++;
+                    pages.add(executor.submit(() -> loader.load(current)));
+                }
+                consumer.accept(pages.poll().get().items());
+            }
+        } catch (ExecutionException e) {
+            pages.forEach(p -> p.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (Exception e) {
+            pages.forEach(p -> p.cancel(true));
+            throw e;
+        }
+    }
+}
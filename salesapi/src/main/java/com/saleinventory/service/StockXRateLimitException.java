@@ -0,0 +1,24 @@
+package com.saleinventory.service;
+
+/**
+ * Zapytanie użytkownika musiałoby czekać na budżet StockX dłużej niż pozwala
+ * stockx.ratelimit.interactive-max-wait-ms.
+ */
+public class StockXRateLimitException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public StockXRateLimitException(long retryAfterMs) {
+        super("Przekroczono limit zapytań StockX, spróbuj ponownie za " + Math.max(1, (retryAfterMs + 999) / 1000) + " s");
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    // wartość nagłówka Retry-After (pełne sekundy, co najmniej 1)
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMs + 999) / 1000);
+    }
+}
@@ -0,0 +1,185 @@
+package com.saleinventory.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Cache odpowiedzi StockX kluczowany pełnym zestawem parametrów zapytania.
+ * Równoczesne chybienia dla tego samego klucza czekają na jedno zapytanie do API.
+ * Po upływie TTL wpis jest jeszcze przez stale-ms zwracany, a w tle odświeżany.
+ */
+@Component
+public class StockXResponseCache implements MeterBinder {
+
+    private static final Logger LOGGER = Logger.getLogger(StockXResponseCache.class.getName());
+
+    // priorytet zależy od tego, kto ładuje: zapytanie użytkownika (INTERACTIVE) czy odświeżenie w tle (BULK)
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(StockXCallScheduler.Priority priority) throws Exception;
+    }
+
+    private record Key(String endpoint, List<Object> args) {}
+
+    private record Entry(Object value, long loadedAtNanos, Loader<?> loader) {}
+
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    @Value("${stockx.cache.max-entries:500}")
+    private long maxEntries;
+
+    @Value("${stockx.cache.stale-ms:120000}")
+    private long staleMs;
+
+    @Value("${stockx.cache.listings.ttl-ms:30000}")
+    private long listingsTtlMs;
+
+    @Value("${stockx.cache.listings-all.ttl-ms:120000}")
+    private long allListingsTtlMs;
+
+    private final Map<String, Long> ttlNanos = new HashMap<>();
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    private final Executor executor = ForkJoinPool.commonPool();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    private AsyncCache<Key, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        ttlNanos.put("listings", TimeUnit.MILLISECONDS.toNanos(listingsTtlMs));
+        ttlNanos.put("listings-all", TimeUnit.MILLISECONDS.toNanos(allListingsTtlMs));
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return ttl(key) + TimeUnit.MILLISECONDS.toNanos(staleMs);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(executor)
+                .buildAsync();
+    }
+
+    public <T> T get(String endpoint, List<Object> args, Loader<T> loader) throws Exception {
+        Key key = new Key(endpoint, args);
+        boolean[] missed = {false};
+        CompletableFuture<Entry> future = cache.get(key, (k, executor) -> {
+            missed[0] = true;
+            // ładowanie w puli Caffeine, ale w kontekście obserwacji zapytania, które je zleciło
+            return CompletableFuture.supplyAsync(() -> load(loader, StockXCallScheduler.Priority.INTERACTIVE),
+                    snapshotFactory.captureAll().wrapExecutor(executor));
+        });
+        Entry entry = await(future);
+
+        if (missed[0]) {
+            misses.increment();
+        } else if (System.nanoTime() - entry.loadedAtNanos() > ttl(key)) {
+            staleHits.increment();
+            refresh(key, entry);
+        } else {
+            hits.increment();
+        }
+        return (T) entry.value();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.synchronous().estimatedSize());
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        long requests = hits.sum() + staleHits.sum() + misses.sum();
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) (hits.sum() + staleHits.sum()) / requests);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stockx.cache.size", this, c -> c.cache.synchronous().estimatedSize())
+                .description("Liczba wpisów w cache odpowiedzi StockX")
+                .register(registry);
+        bindCounter(registry, "stockx.cache.requests", "result", "hit", hits);
+        bindCounter(registry, "stockx.cache.requests", "result", "stale", staleHits);
+        bindCounter(registry, "stockx.cache.requests", "result", "miss", misses);
+        FunctionCounter.builder("stockx.cache.refreshes", refreshes, LongAdder::sum).register(registry);
+        FunctionCounter.builder("stockx.cache.refresh.failures", refreshFailures, LongAdder::sum).register(registry);
+    }
+
+    private static void bindCounter(MeterRegistry registry, String name, String tag, String value, LongAdder adder) {
+        FunctionCounter.builder(name, adder, LongAdder::sum).tag(tag, value).register(registry);
+    }
+
+    // jedno odświeżenie w tle na klucz; błąd odświeżenia zostawia stary wpis do końca okna stale.
+    // Odświeżenie idzie jako BULK, żeby nie zajmować limitu zapytaniom użytkowników
+    private void refresh(Key key, Entry stale) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refreshes.increment();
+        CompletableFuture.supplyAsync(() -> load(stale.loader(), StockXCallScheduler.Priority.BULK),
+                        snapshotFactory.captureAll().wrapExecutor(executor))
+                .whenComplete((entry, error) -> {
+                    try {
+                        if (error == null) {
+                            cache.put(key, CompletableFuture.completedFuture(entry));
+                        } else {
+                            refreshFailures.increment();
+                            LOGGER.warning("Odświeżenie cache StockX (" + key.endpoint() + ") nie powiodło się: " + error.getMessage());
+                        }
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+    }
+
+    private long ttl(Key key) {
+        return ttlNanos.getOrDefault(key.endpoint(), TimeUnit.MILLISECONDS.toNanos(listingsTtlMs));
+    }
+
+    private static Entry load(Loader<?> loader, StockXCallScheduler.Priority priority) {
+        try {
+            return new Entry(loader.load(priority), System.nanoTime(), loader);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
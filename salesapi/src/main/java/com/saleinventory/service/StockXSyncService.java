@@ -1,47 +1,156 @@
 package com.saleinventory.service;
 
+import com.saleinventory.dto.ProductSyncResultDTO;
+import com.saleinventory.dto.ProductSyncStateDTO;
+import com.saleinventory.dto.StockXCatalogProductDTO;
 import com.saleinventory.model.Product;
 import com.saleinventory.repository.ProductRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
 
+/**
+ * Synchronizacja katalogu produktów StockX do tabeli product. Istniejące externalId
+ * i skróty pól są wczytywane jednym zapytaniem, więc dla każdego produktu z API wiadomo
+ * od razu czy to nowy wiersz, zmiana czy brak zmian. Zapisywane są tylko nowe i zmienione
+ * wiersze, paczkami po chunk-size w osobnych transakcjach (INSERT/UPDATE w batchach JDBC).
+ */
 @Service
 public class StockXSyncService {
 
+    private static final Logger LOGGER = Logger.getLogger(StockXSyncService.class.getName());
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
     @Autowired
     private StockXApiService stockXApiService;
 
+    @Autowired
+    private StockXAuthService authService;
+
     @Autowired
     private ProductRepository productRepository;
 
-   /*@Scheduled(fixedRate = 3600000) // co godzinę
-    @Transactional
-    public void syncProducts() throws IOException {
-        ResponseEntity<String> response = stockXApiService.getProducts();
-        String body = response.getBody();
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode root = objectMapper.readTree(body);
-        JsonNode products = root.get("products"); // dopasuj do rzeczywistego klucza
+    @PersistenceContext
+    private EntityManager entityManager;
 
-        if (products != null && products.isArray()) {
-            for (JsonNode item : products) {
-                String externalId = item.get("productId").asText();
+    @Value("${stockx.products.chunk-size:1000}")
+    private int chunkSize;
 
-                if (!productRepository.existsByExternalId(externalId)) {
-                    Product p = new Product();
-                    //p.setExternalId(externalId);
+    @Scheduled(fixedDelayString = "${stockx.products.sync-interval-ms:3600000}",
+            initialDelayString = "${stockx.products.sync-initial-delay-ms:60000}")
+    public void scheduledSync() {
+        if (!authService.isAuthorized()) {
+            return;
+        }
+        try {
+            ProductSyncResultDTO result = syncProducts();
+            LOGGER.info("Synchronizacja produktów StockX: nowe " + result.inserted() + ", zmienione " + result.updated()
+                    + ", bez zmian " + result.unchanged());
+        } catch (Exception e) {
+            LOGGER.warning("Synchronizacja produktów StockX nie powiodła się: " + e.getMessage());
+        }
+    }
 
-                    productRepository.save(p);
-                }
+    // jedna synchronizacja naraz; ReentrantLock, bo w trakcie jest I/O, a synchronized przypina wątek wirtualny
+    public ProductSyncResultDTO syncProducts() throws Exception {
+        syncLock.lock();
+        try {
+            return syncProductsLocked();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private ProductSyncResultDTO syncProductsLocked() throws Exception {
+        long start = System.currentTimeMillis();
+        List<StockXCatalogProductDTO> incoming = stockXApiService.getAllProducts(StockXCallScheduler.Priority.BULK);
+
+        Map<String, ProductSyncStateDTO> existing = new HashMap<>();
+        for (ProductSyncStateDTO state : productRepository.findSyncStates()) {
+            existing.put(state.externalId(), state);
+        }
+
+        // ten sam produkt może wrócić na dwóch stronach, jeśli katalog zmienił się w trakcie pobierania
+        Map<String, StockXCatalogProductDTO> unique = new LinkedHashMap<>();
+        for (StockXCatalogProductDTO product : incoming) {
+            if (product.productId() != null) {
+                unique.put(product.productId(), product);
             }
         }
-    }*/
-}
\ No newline at end of file
+
+        List<Product> inserts = new ArrayList<>();
+        Map<Long, StockXCatalogProductDTO> updates = new LinkedHashMap<>();
+        Map<Long, String> updateHashes = new HashMap<>();
+        int unchanged = 0;
+        for (StockXCatalogProductDTO product : unique.values()) {
+            String hash = contentHash(product);
+            ProductSyncStateDTO state = existing.get(product.productId());
+            if (state == null) {
+                Product entity = new Product();
+                entity.setExternalId(product.productId());
+                apply(entity, product, hash);
+                inserts.add(entity);
+            } else if (!hash.equals(state.syncHash())) {
+                updates.put(state.id(), product);
+                updateHashes.put(state.id(), hash);
+            } else {
+                unchanged++;
+            }
+        }
+
+        for (int from = 0; from < inserts.size(); from += chunkSize) {
+            List<Product> chunk = inserts.subList(from, Math.min(from + chunkSize, inserts.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        List<Long> updateIds = new ArrayList<>(updates.keySet());
+        for (int from = 0; from < updateIds.size(); from += chunkSize) {
+            List<Long> chunk = updateIds.subList(from, Math.min(from + chunkSize, updateIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                // jedno zapytanie IN na paczkę, zmiany wychodzą przy flush jako batch UPDATE
+                for (Product entity : productRepository.findAllById(chunk)) {
+                    apply(entity, updates.get(entity.getId()), updateHashes.get(entity.getId()));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        return new ProductSyncResultDTO(incoming.size(), inserts.size(), updates.size(), unchanged,
+                System.currentTimeMillis() - start);
+    }
+
+    private static void apply(Product entity, StockXCatalogProductDTO product, String hash) {
+        entity.setName(product.title());
+        entity.setSku(product.styleId());
+        entity.setSyncHash(hash);
+    }
+
+    // skrót tylko z pól, które zapisujemy; zmiana innych pól w API nie wymusza UPDATE
+    private static String contentHash(StockXCatalogProductDTO product) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (String field : new String[]{product.title(), product.styleId()}) {
+            digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0x1f);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,38 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Numery zmian z sekwencji w bazie zamiast licznika w pamięci jednej instancji (ChangeTracker).
+ * Sekwencja startuje za największym zapisanym numerem - start musi być literałem, dlatego migracja w Javie.
+ * Wiersze sprzed V5 (change_version = 0) dostają numery z sekwencji, żeby since=0 je zwracało,
+ * a klienci zsynchronizowani przed migracją dostali je jako nowe zmiany.
+ */
+public class V7__Change_version_sequence extends BaseJavaMigration {
+
+    // ChangeTracker.VERSION_BLOCK - transakcja bierze naraz cały blok numerów
+    private static final int INCREMENT = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long max = Math.max(max(statement, "select max(version) from deleted_entity"),
+                    Math.max(max(statement, "select max(change_version) from product"),
+                            max(statement, "select max(change_version) from sale")));
+            statement.execute("create sequence change_version_seq start with " + (max + 1) + " increment by " + INCREMENT);
+            statement.executeUpdate("update product set change_version = nextval('change_version_seq') where change_version = 0");
+            statement.executeUpdate("update sale set change_version = nextval('change_version_seq') where change_version = 0");
+        }
+    }
+
+    private static long max(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+-- Schemat bazowy (stan encji JPA). Skrypt działa bez zmian na H2 i PostgreSQL.
+
+create sequence product_seq start with 1 increment by 50;
+
+create table product (
+    id             bigint       not null,
+    external_id    varchar(255),
+    sku            varchar(255),
+    size           varchar(255),
+    name           varchar(255),
+    purchase_price numeric(12, 2),
+    status         varchar(16),
+    purchase_date  date,
+    sale_date      date,
+    quantity       integer      not null,
+    sync_hash      varchar(64),
+    primary key (id),
+    constraint uk_product_external_id unique (external_id),
+    constraint ck_product_status check (status in ('IN_STOCK', 'LISTED', 'SOLD'))
+);
+
+create index idx_product_sku_size on product (sku, size);
+create index idx_product_status_purchase_date on product (status, purchase_date);
+create index idx_product_purchase_date on product (purchase_date);
+create index idx_product_sale_date on product (sale_date);
+
+create table sale (
+    id           bigint generated by default as identity,
+    product_name varchar(255),
+    quantity     integer   not null,
+    price        float(53) not null,
+    sale_date    date,
+    primary key (id)
+);
+
+create table stockx_order (
+    order_number   varchar(255) not null,
+    listing_id     varchar(255),
+    created_at     timestamp(6) with time zone,
+    updated_at     timestamp(6) with time zone,
+    status         varchar(255),
+    inventory_type varchar(255),
+    amount         numeric(19, 2),
+    currency_code  varchar(255),
+    total_payout   numeric(19, 2),
+    product_id     varchar(255),
+    product_name   varchar(255),
+    variant_id     varchar(255),
+    variant_name   varchar(255),
+    payload        text,
+    primary key (order_number)
+);
+
+create index idx_stockx_order_created_at on stockx_order (created_at);
+create index idx_stockx_order_status_created_at on stockx_order (status, created_at);
+
+create table daily_sales_rollup (
+    sales_day    date    not null,
+    total_orders integer not null,
+    revenue      numeric(19, 2),
+    primary key (sales_day)
+);
+
+create table monthly_sales_rollup (
+    sales_month  varchar(7) not null,
+    total_orders integer    not null,
+    revenue      numeric(19, 2),
+    primary key (sales_month)
+);
+
+create table stockx_credential (
+    id            varchar(255) not null,
+    access_token  varchar(4096),
+    refresh_token varchar(4096),
+    expires_at    timestamp(6) with time zone,
+    updated_at    timestamp(6) with time zone,
+    primary key (id)
+);
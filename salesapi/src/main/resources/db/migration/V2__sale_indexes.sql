@@ -0,0 +1,4 @@
+-- Statystyki sprzedaży (/api/sales/stats) filtrują po dacie i grupują po produkcie.
+
+create index idx_sale_sale_date on sale (sale_date);
+create index idx_sale_product_name on sale (product_name);
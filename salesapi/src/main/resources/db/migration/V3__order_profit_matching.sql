@@ -0,0 +1,17 @@
+-- Dopasowanie zamówień StockX do zakupionego towaru (zysk = wypłata - cena zakupu).
+-- sku i size zamówienia pochodzą z product.styleId i variant.variantValue w JSON-ie StockX.
+
+alter table stockx_order add column sku varchar(255);
+alter table stockx_order add column size varchar(255);
+
+create table stockx_order_match (
+    order_number varchar(255) not null,
+    product_id   bigint       not null,
+    sold_at      timestamp(6) with time zone,
+    payout       numeric(19, 2),
+    cost         numeric(12, 2),
+    matched_at   timestamp(6) with time zone,
+    primary key (order_number)
+);
+
+create index idx_stockx_order_match_sold_at on stockx_order_match (sold_at);
@@ -0,0 +1,3 @@
+-- Kolumna @Version produktu: zmiany z /api/products/batch sprawdzają wersję, którą klient widział.
+
+alter table product add column version bigint default 0 not null;
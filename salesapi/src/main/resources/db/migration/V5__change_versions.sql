@@ -0,0 +1,18 @@
+-- Wersje zmian dla synchronizacji przyrostowej (/api/products/changes, /api/sales/changes).
+-- change_version rośnie przy każdym zapisie wiersza; usunięcia zostają w deleted_entity.
+
+alter table product add column change_version bigint default 0 not null;
+alter table sale add column change_version bigint default 0 not null;
+
+create index idx_product_change_version on product (change_version);
+create index idx_sale_change_version on sale (change_version);
+
+create table deleted_entity (
+    version    bigint      not null,
+    entity     varchar(16) not null,
+    entity_id  bigint      not null,
+    deleted_at timestamp(6) with time zone,
+    primary key (version)
+);
+
+create index idx_deleted_entity_entity_version on deleted_entity (entity, version);
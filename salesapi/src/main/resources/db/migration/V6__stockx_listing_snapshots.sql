@@ -0,0 +1,41 @@
+-- Lokalna kopia listingów StockX (reconciler w StockXListingSnapshotService) i dziennik zmian ceny/statusu.
+-- content_hash to SHA-256 zapisywanych pól; wiersz jest nadpisywany tylko, gdy skrót się zmieni.
+
+create table stockx_listing (
+    listing_id      varchar(255) not null,
+    status          varchar(32),
+    amount          numeric(19, 2),
+    currency_code   varchar(8),
+    inventory_type  varchar(32),
+    product_id      varchar(255),
+    product_name    varchar(255),
+    style_id        varchar(255),
+    variant_id      varchar(255),
+    variant_name    varchar(255),
+    variant_value   varchar(255),
+    created_at      timestamp(6) with time zone,
+    updated_at      timestamp(6) with time zone,
+    content_hash    varchar(64),
+    last_changed_at timestamp(6) with time zone,
+    primary key (listing_id)
+);
+
+create index idx_stockx_listing_product_status on stockx_listing (product_id, status);
+create index idx_stockx_listing_variant_status on stockx_listing (variant_id, status);
+create index idx_stockx_listing_status_created_at on stockx_listing (status, created_at);
+
+create sequence stockx_listing_change_seq start with 1 increment by 50;
+
+create table stockx_listing_change (
+    id         bigint       not null,
+    listing_id varchar(255) not null,
+    changed_at timestamp(6) with time zone not null,
+    old_status varchar(32),
+    new_status varchar(32),
+    old_amount numeric(19, 2),
+    new_amount numeric(19, 2),
+    primary key (id)
+);
+
+create index idx_stockx_listing_change_changed_at on stockx_listing_change (changed_at);
+create index idx_stockx_listing_change_listing on stockx_listing_change (listing_id, changed_at);
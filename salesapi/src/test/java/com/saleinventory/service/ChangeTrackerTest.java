@@ -0,0 +1,152 @@
+package com.saleinventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// bez transakcji testu: każda transakcja w teście kończy się naprawdę i dopiero wtedy przesuwa watermark
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ChangeTracker.class)
+class ChangeTrackerTest {
+
+    @Autowired
+    private ChangeTracker changeTracker;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void laterCommitStaysHiddenUntilEarlierTransactionCommits() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        changeTracker.addListener((entity, version) -> published.add(entity));
+
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long[] first = new long[1];
+        Future<?> earlier = Executors.newSingleThreadExecutor().submit(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    first[0] = changeTracker.next(ChangeTracker.PRODUCT);
+                    allocated.countDown();
+                    await(release);
+                }));
+        allocated.await();
+
+        long second = transactionTemplate.execute(status -> changeTracker.next(ChangeTracker.SALE));
+
+        assertThat(second).isGreaterThan(first[0]);
+        assertThat(changeTracker.watermark()).isLessThan(first[0]);
+        assertThat(published).isEmpty();
+
+        release.countDown();
+        earlier.get(10, TimeUnit.SECONDS);
+
+        assertThat(changeTracker.watermark()).isGreaterThanOrEqualTo(second);
+        assertThat(published).containsExactlyInAnyOrder(ChangeTracker.PRODUCT, ChangeTracker.SALE);
+    }
+
+    @Test
+    void rollbackReleasesWatermarkWithoutPublishingItsChanges() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        changeTracker.addListener((entity, version) -> published.add(entity));
+
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> rolledBack = Executors.newSingleThreadExecutor().submit(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    changeTracker.next(ChangeTracker.PRODUCT);
+                    allocated.countDown();
+                    await(release);
+                    status.setRollbackOnly();
+                }));
+        allocated.await();
+
+        long committed = transactionTemplate.execute(status -> changeTracker.next(ChangeTracker.SALE));
+        assertThat(published).isEmpty();
+
+        release.countDown();
+        rolledBack.get(10, TimeUnit.SECONDS);
+
+        assertThat(changeTracker.watermark()).isGreaterThanOrEqualTo(committed);
+        assertThat(published).containsExactly(ChangeTracker.SALE);
+    }
+
+    // watermark odczytany w dowolnej chwili nie może obejmować numeru transakcji, która się jeszcze nie skończyła
+    @Test
+    void concurrentTransactionsNeverExposeVersionsInFlight() throws Exception {
+        Map<Long, Boolean> allocated = new ConcurrentHashMap<>();
+        Set<Long> finished = ConcurrentHashMap.newKeySet();
+        List<String> violations = new CopyOnWriteArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Thread observer = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                long watermark = changeTracker.watermark();
+                allocated.keySet().stream()
+                        .filter(version -> version <= watermark && !finished.contains(version))
+                        .forEach(version -> violations.add(version + " <= " + watermark));
+            }
+        });
+
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            int seed = worker;
+            futures.add(workers.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200; i++) {
+                    // co jakiś czas więcej numerów niż blok sekwencji
+                    int count = i % 50 == 0 ? ChangeTracker.VERSION_BLOCK + 10 : 1 + random.nextInt(3);
+                    boolean rollback = random.nextInt(5) == 0;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        List<Long> versions = new ArrayList<>();
+                        for (int n = 0; n < count; n++) {
+                            long version = changeTracker.next(n % 2 == 0 ? ChangeTracker.PRODUCT : ChangeTracker.SALE);
+                            assertThat(allocated.put(version, Boolean.TRUE)).isNull();
+                            versions.add(version);
+                        }
+                        // przed afterCompletion ChangeTrackera, więc "finished" nigdy nie jest spóźnione
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void beforeCompletion() {
+                                finished.addAll(versions);
+                            }
+                        });
+                        if (rollback) {
+                            status.setRollbackOnly();
+                        }
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+        running.set(false);
+        observer.join();
+
+        assertThat(violations).isEmpty();
+        assertThat(finished).containsExactlyInAnyOrderElementsOf(allocated.keySet());
+        assertThat(changeTracker.watermark()).isGreaterThanOrEqualTo(Collections.max(allocated.keySet()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.ProductBatchItemDTO;
+import com.saleinventory.dto.ProductBatchResponseDTO;
+import com.saleinventory.dto.ProductBatchResultDTO;
+import com.saleinventory.dto.ProductBatchResultDTO.Status;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// bez transakcji testu: paczka ma własną transakcję i jej wycofanie musi być widoczne w bazie
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductBatchService.class, ChangeTracker.class})
+class ProductBatchServiceTest {
+
+    @Autowired
+    private ProductBatchService batchService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void staleVersionIsConflictAndOtherItemsAreSaved() {
+        Product product = saveProduct("SKU-1", 2);
+        Long staleVersion = product.getVersion();
+        productRepository.save(withQuantity(product, 3));
+
+        ProductBatchResponseDTO response = batchService.apply(List.of(
+                update(product.getId(), staleVersion, 5),
+                create("SKU-2")), false);
+
+        assertThat(statuses(response)).containsExactly(Status.CONFLICT, Status.OK);
+        assertThat(response.results().get(0).version()).isEqualTo(staleVersion + 1);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(3);
+        assertThat(productRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void atomicBatchRollsBackEarlierItemsOnConflict() {
+        Product product = saveProduct("SKU-1", 2);
+        Product other = saveProduct("SKU-3", 1);
+
+        ProductBatchResponseDTO response = batchService.apply(List.of(
+                create("SKU-2"),
+                update(other.getId(), other.getVersion(), 7),
+                update(product.getId(), product.getVersion() + 1, 5)), true);
+
+        assertThat(statuses(response)).containsExactly(Status.SKIPPED, Status.SKIPPED, Status.CONFLICT);
+        assertThat(response.applied()).isZero();
+        assertThat(productRepository.count()).isEqualTo(2);
+        assertThat(productRepository.findById(other.getId()).orElseThrow().getQuantity()).isEqualTo(1);
+        assertThat(productRepository.findById(other.getId()).orElseThrow().getVersion()).isEqualTo(other.getVersion());
+    }
+
+    @Test
+    void atomicBatchWithInvalidItemDoesNotTouchDatabase() {
+        Product product = saveProduct("SKU-1", 2);
+
+        ProductBatchResponseDTO response = batchService.apply(List.of(
+                update(product.getId(), product.getVersion(), 4),
+                new ProductBatchItemDTO("update", product.getId(), null, null, null, null, null, null, null, null, 1)), true);
+
+        assertThat(statuses(response)).containsExactly(Status.SKIPPED, Status.INVALID);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentUpdatesOfSameVersionLetOnlyOneWin() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            Product product = saveProduct("SKU-" + round, 1);
+            CyclicBarrier start = new CyclicBarrier(2);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                List<Future<ProductBatchResponseDTO>> futures = List.of(
+                        executor.submit(() -> applyAfter(start, update(product.getId(), product.getVersion(), 10))),
+                        executor.submit(() -> applyAfter(start, update(product.getId(), product.getVersion(), 20))));
+                List<Status> outcomes = List.of(
+                        futures.get(0).get(30, TimeUnit.SECONDS).results().get(0).status(),
+                        futures.get(1).get(30, TimeUnit.SECONDS).results().get(0).status());
+
+                assertThat(outcomes).containsExactlyInAnyOrder(Status.OK, Status.CONFLICT);
+                Product saved = productRepository.findById(product.getId()).orElseThrow();
+                assertThat(saved.getVersion()).isEqualTo(product.getVersion() + 1);
+                assertThat(saved.getQuantity()).isEqualTo(outcomes.get(0) == Status.OK ? 10 : 20);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private ProductBatchResponseDTO applyAfter(CyclicBarrier start, ProductBatchItemDTO item) throws Exception {
+        start.await(10, TimeUnit.SECONDS);
+        return batchService.apply(List.of(item), true);
+    }
+
+    private Product saveProduct(String sku, int quantity) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setSize("42");
+        product.setStatus(ProductStatus.IN_STOCK);
+        product.setQuantity(quantity);
+        return productRepository.save(product);
+    }
+
+    private static Product withQuantity(Product product, int quantity) {
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    private static ProductBatchItemDTO update(Long id, Long version, int quantity) {
+        return new ProductBatchItemDTO("update", id, version, null, null, null, null, null, null, null, quantity);
+    }
+
+    private static ProductBatchItemDTO create(String sku) {
+        return new ProductBatchItemDTO("create", null, null, sku, "42", null, null, "IN_STOCK", null, null, 1);
+    }
+
+    private static List<Status> statuses(ProductBatchResponseDTO response) {
+        return response.results().stream().map(ProductBatchResultDTO::status).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.ProductSliceDTO;
+import com.saleinventory.dto.ProductSummaryDTO;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import({ProductService.class, ChangeTracker.class})
+class ProductServiceKeysetTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        // co drugi produkt bez daty sprzedaży i co trzeci bez ceny, z powtórzonymi wartościami
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            Product p = new Product();
+            p.setSku("SKU-" + (i % 4));
+            p.setName("Produkt " + i);
+            p.setStatus(i % 2 == 0 ? ProductStatus.IN_STOCK : ProductStatus.SOLD);
+            p.setPurchaseDate(LocalDate.of(2024, 1, 1 + i % 3));
+            p.setSaleDate(i % 2 == 0 ? null : LocalDate.of(2024, 2, 1 + i % 3));
+            p.setPurchasePrice(i % 3 == 0 ? null : BigDecimal.valueOf(100 + (i % 2) * 50));
+            p.setQuantity(1);
+            products.add(p);
+        }
+        productRepository.saveAllAndFlush(products);
+    }
+
+    @Test
+    void pagesThroughNullSortKeysAscending() {
+        assertPagedEqualsUnpaged("saleDate", "asc");
+        assertPagedEqualsUnpaged("purchasePrice", "asc");
+    }
+
+    @Test
+    void pagesThroughNullSortKeysDescending() {
+        assertPagedEqualsUnpaged("saleDate", "desc");
+        assertPagedEqualsUnpaged("purchasePrice", "desc");
+    }
+
+    @Test
+    void nullsSortAfterValuesAscendingAndBeforeDescending() {
+        List<ProductSummaryDTO> asc = productService.list(null, "saleDate", "asc");
+        List<ProductSummaryDTO> desc = productService.list(null, "saleDate", "desc");
+        assertThat(asc.get(0).saleDate()).isNotNull();
+        assertThat(asc.get(asc.size() - 1).saleDate()).isNull();
+        assertThat(desc.get(0).saleDate()).isNull();
+        assertThat(desc.get(desc.size() - 1).saleDate()).isNotNull();
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        ProductSliceDTO first = productService.search(null, "saleDate", "asc", null, 2);
+        assertThatThrownBy(() -> productService.search(null, "sku", "asc", first.nextCursor(), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unpagedListRejectsMoreThanMaxRows() {
+        Object maxRows = ReflectionTestUtils.getField(productService, "maxListRows");
+        ReflectionTestUtils.setField(productService, "maxListRows", 10);
+        try {
+            assertThatThrownBy(() -> productService.list(null, "id", "asc"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            ReflectionTestUtils.setField(productService, "maxListRows", 11);
+            assertThat(productService.list(null, "id", "asc")).hasSize(11);
+        } finally {
+            ReflectionTestUtils.setField(productService, "maxListRows", maxRows);
+        }
+    }
+
+    // strony po 2 wiersze (kursor trafia też na wiersz z pustym polem) składają się w pełną listę
+    private void assertPagedEqualsUnpaged(String sortBy, String sortDir) {
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductSliceDTO slice = productService.search(null, sortBy, sortDir, cursor, 2);
+            slice.items().forEach(item -> paged.add(item.id()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+
+        List<Long> unpaged = productService.list(null, sortBy, sortDir).stream().map(ProductSummaryDTO::id).toList();
+        assertThat(unpaged).hasSize(11);
+        assertThat(paged).as("%s %s", sortBy, sortDir).containsExactlyElementsOf(unpaged);
+    }
+}
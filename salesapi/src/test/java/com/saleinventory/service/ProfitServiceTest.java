@@ -0,0 +1,129 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.InventoryUnitDTO;
+import com.saleinventory.dto.ProfitReconcileResultDTO;
+import com.saleinventory.model.Product;
+import com.saleinventory.model.ProductStatus;
+import com.saleinventory.model.StockXOrder;
+import com.saleinventory.repository.ProductRepository;
+import com.saleinventory.repository.StockXOrderMatchRepository;
+import com.saleinventory.repository.StockXOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+// bez transakcji testu: rozliczenie ma własną transakcję, a zmiana ilości "z innego zapytania" musi być zatwierdzona
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProfitService.class, ChangeTracker.class})
+class ProfitServiceTest {
+
+    @Autowired
+    private ProfitService profitService;
+    @SpyBean
+    private ProductRepository productRepository;
+    @Autowired
+    private StockXOrderRepository orderRepository;
+    @Autowired
+    private StockXOrderMatchRepository matchRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        matchRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void matchesEveryUnitWhenQuantityDoesNotChange() {
+        Product product = saveProduct(3);
+        saveOrders(3);
+
+        ProfitReconcileResultDTO result = profitService.reconcile();
+
+        assertThat(result.matched()).isEqualTo(3);
+        assertThat(result.productsSold()).isEqualTo(1);
+        Product sold = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(sold.getStatus()).isEqualTo(ProductStatus.SOLD);
+        assertThat(sold.getQuantity()).isZero();
+    }
+
+    @Test
+    void quantityLoweredAfterSnapshotCapsMatchesAndLeavesRestUnmatched() {
+        Product product = saveProduct(3);
+        saveOrders(3);
+        // inne zapytanie zmniejsza ilość między odczytem towaru a transakcją zapisu
+        changeAfterSnapshot("update product set quantity = 1, version = version + 1 where id = ?", product.getId());
+
+        ProfitReconcileResultDTO result = profitService.reconcile();
+
+        assertThat(result.matched()).isEqualTo(1);
+        assertThat(result.unmatched()).isEqualTo(2);
+        assertThat(matchRepository.count()).isEqualTo(1);
+        assertThat(orderRepository.findUnmatchedSales()).hasSize(2);
+        Product sold = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(sold.getStatus()).isEqualTo(ProductStatus.SOLD);
+        assertThat(sold.getQuantity()).isZero();
+    }
+
+    @Test
+    void productSoldAfterSnapshotGetsNoMatches() {
+        Product product = saveProduct(2);
+        saveOrders(2);
+        changeAfterSnapshot("update product set status = 'SOLD', quantity = 0, version = version + 1 where id = ?",
+                product.getId());
+
+        ProfitReconcileResultDTO result = profitService.reconcile();
+
+        assertThat(result.matched()).isZero();
+        assertThat(result.productsSold()).isZero();
+        assertThat(matchRepository.count()).isZero();
+        assertThat(orderRepository.findUnmatchedSales()).hasSize(2);
+    }
+
+    // odczyt towaru na początku rozliczenia widzi stan sprzed zmiany, transakcja zapisu już po niej
+    private void changeAfterSnapshot(String sql, Long productId) {
+        List<InventoryUnitDTO> snapshot = productRepository.findUnsoldUnits();
+        jdbcTemplate.update(sql, productId);
+        doReturn(snapshot).when(productRepository).findUnsoldUnits();
+    }
+
+    private Product saveProduct(int quantity) {
+        Product product = new Product();
+        product.setSku("SKU-1");
+        product.setSize("10");
+        product.setName("Produkt");
+        product.setStatus(ProductStatus.IN_STOCK);
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setQuantity(quantity);
+        return productRepository.save(product);
+    }
+
+    private void saveOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            StockXOrder order = new StockXOrder();
+            order.setOrderNumber("ON-" + i);
+            order.setCreatedAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(i * 60L));
+            order.setStatus("COMPLETED");
+            order.setTotalPayout(new BigDecimal("150.00"));
+            order.setSku("SKU-1");
+            order.setSize("10");
+            orderRepository.save(order);
+        }
+    }
+}
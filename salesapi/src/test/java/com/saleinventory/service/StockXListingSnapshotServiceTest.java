@@ -0,0 +1,119 @@
+package com.saleinventory.service;
+
+import com.saleinventory.dto.*;
+import com.saleinventory.model.StockXListing;
+import com.saleinventory.model.StockXListingChange;
+import com.saleinventory.repository.StockXListingChangeRepository;
+import com.saleinventory.repository.StockXListingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+// bez transakcji testu: synchronizacja zapisuje paczki we własnych transakcjach; paczka po 2, żeby było ich kilka
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "stockx.listings.chunk-size=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StockXListingSnapshotService.class)
+class StockXListingSnapshotServiceTest {
+
+    @Autowired
+    private StockXListingSnapshotService snapshotService;
+    @Autowired
+    private StockXListingRepository listingRepository;
+    @Autowired
+    private StockXListingChangeRepository changeRepository;
+    @MockBean
+    private StockXListingService listingService;
+    @MockBean
+    private StockXAuthService authService;
+
+    @AfterEach
+    void cleanUp() {
+        changeRepository.deleteAllInBatch();
+        listingRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void syncWritesOnlyInsertsUpdatesAndDeactivations() throws Exception {
+        activeListings(listing("L1", "150"), listing("L2", "160"), listing("L3", "170"));
+        ListingSyncResultDTO first = snapshotService.syncListings();
+        assertThat(first.inserted()).isEqualTo(3);
+        assertThat(first.changesLogged()).isEqualTo(3);
+
+        // L1 tańszy, L2 bez zmian, L3 zniknął z aktywnych, L4 nowy
+        activeListings(listing("L1", "140.00"), listing("L2", "160.00"), listing("L4", "180"));
+        ListingSyncResultDTO second = snapshotService.syncListings();
+
+        assertThat(second.inserted()).isEqualTo(1);
+        assertThat(second.updated()).isEqualTo(1);
+        assertThat(second.deactivated()).isEqualTo(1);
+        assertThat(second.unchanged()).isEqualTo(1);
+        assertThat(second.changesLogged()).isEqualTo(3);
+
+        assertThat(listingRepository.findById("L3").orElseThrow().getStatus()).isEqualTo("INACTIVE");
+        assertThat(listingRepository.findById("L1").orElseThrow().getAmount()).isEqualByComparingTo("140");
+        List<StockXListingChange> history = snapshotService.getHistory("L1");
+        assertThat(history).hasSize(2);
+        assertThat(history.get(1).getOldAmount()).isEqualByComparingTo("150");
+        assertThat(history.get(1).getNewAmount()).isEqualByComparingTo("140");
+        StockXListingChange deactivation = snapshotService.getHistory("L3").get(1);
+        assertThat(deactivation.getOldStatus()).isEqualTo("ACTIVE");
+        assertThat(deactivation.getNewStatus()).isEqualTo("INACTIVE");
+
+        // ten sam stan drugi raz: nic do zapisu, L3 nie jest dezaktywowany ponownie
+        ListingSyncResultDTO third = snapshotService.syncListings();
+        assertThat(third.inserted() + third.updated() + third.deactivated() + third.changesLogged()).isZero();
+        assertThat(third.unchanged()).isEqualTo(3);
+    }
+
+    @Test
+    void changesWithSameChangedAtArePagedByIdWithoutGapsOrDuplicates() throws Exception {
+        activeListings(IntStream.range(0, 7).mapToObj(i -> listing("L" + i, "100")).toArray(StockXListingDTO[]::new));
+        snapshotService.syncListings();
+
+        List<ListingChangeDTO> all = snapshotService.getChangesSince(Instant.EPOCH, null, 100);
+        assertThat(all).hasSize(7);
+        assertThat(all).extracting(ListingChangeDTO::changedAt).containsOnly(all.get(0).changedAt());
+
+        List<Long> paged = new ArrayList<>();
+        Instant since = Instant.EPOCH;
+        Long afterId = null;
+        for (List<ListingChangeDTO> page = snapshotService.getChangesSince(since, afterId, 3); !page.isEmpty();
+             page = snapshotService.getChangesSince(since, afterId, 3)) {
+            assertThat(page.size()).isLessThanOrEqualTo(3);
+            page.forEach(change -> paged.add(change.id()));
+            since = page.get(page.size() - 1).changedAt();
+            afterId = page.get(page.size() - 1).id();
+        }
+
+        assertThat(paged).doesNotHaveDuplicates().containsExactlyElementsOf(all.stream().map(ListingChangeDTO::id).toList());
+        // sam czas bez afterId pomija resztę zmian z tej samej chwili
+        assertThat(snapshotService.getChangesSince(all.get(0).changedAt(), null, 100)).isEmpty();
+    }
+
+    private void activeListings(StockXListingDTO... listings) throws Exception {
+        when(listingService.getAllListings(eq(StockXCallScheduler.Priority.BULK), any(), any(), eq("ACTIVE"), any()))
+                .thenReturn(List.of(listings));
+    }
+
+    private static StockXListingDTO listing(String listingId, String amount) {
+        return new StockXListingDTO(listingId, "ACTIVE", new BigDecimal(amount), "USD", "STANDARD",
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:00Z"),
+                new StockXProductRefDTO("p1", "Shoe", "SKU-1"), new StockXVariantRefDTO("v1", "SKU-1-10", "10"));
+    }
+}